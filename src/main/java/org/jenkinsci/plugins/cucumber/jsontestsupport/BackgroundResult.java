@@ -39,7 +39,7 @@ public class BackgroundResult extends TestResult {
 	
 	private static final long serialVersionUID = 1L;
 
-	private Background background;
+	private Statement statement;
 	private ArrayList<StepResult> stepResults = new ArrayList<StepResult>(); 
 	
 	private ScenarioResult parent;
@@ -53,8 +53,28 @@ public class BackgroundResult extends TestResult {
 	
 	private transient float duration;
 	
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
+	private Background background;
+
 	BackgroundResult(Background background) {
-		this.background = background;
+		this(Statement.of(background, StringTable.NONE));
+	}
+
+	BackgroundResult(Statement statement) {
+		this.statement = statement;
+	}
+
+	/**
+	 * Converts a result recorded by an older version that held on to the whole gherkin model.
+	 */
+	@SuppressWarnings("deprecation")
+	protected Object readResolve() {
+		if (background != null) {
+			statement = Statement.of(background, StringTable.NONE);
+			background = null;
+		}
+		return this;
 	}
 	
 	@Override
@@ -116,8 +136,43 @@ public class BackgroundResult extends TestResult {
 	   return "Background Result";
    }
 
+	/**
+	 * @deprecated the gherkin model is no longer kept, this recreates the parts that are shown in the report. Use
+	 *             {@link #getStatement()} instead.
+	 */
+	@Deprecated
 	public Background getBackground() {
-		return this.background;
+		return statement.toBackground();
+	}
+
+	Statement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * Shares the definition of the background, that is its statement and those of its steps, with another result
+	 * of the same background so that it is only held once. Only the results of the steps are kept for each scenario.
+	 *
+	 * @return <code>true</code> if the definition is now shared, <code>false</code> if the other result is for a
+	 *         different background.
+	 */
+	boolean shareDefinition(BackgroundResult other) {
+		if (other.statement == statement) {
+			return true;
+		}
+		if (!other.statement.equals(statement) || other.stepResults.size() != stepResults.size()) {
+			return false;
+		}
+		for (int i = 0; i < stepResults.size(); i++) {
+			if (!other.stepResults.get(i).getStatement().equals(stepResults.get(i).getStatement())) {
+				return false;
+			}
+		}
+		statement = other.statement;
+		for (int i = 0; i < stepResults.size(); i++) {
+			stepResults.get(i).shareStatement(other.stepResults.get(i).getStatement());
+		}
+		return true;
 	}
 	
 	void addStepResult(StepResult stepResult) {
@@ -129,6 +184,15 @@ public class BackgroundResult extends TestResult {
 		return stepResults;
 	}
 	
+	/**
+	 * Restores the state calculated by {@link #tally()} as it was when the result was archived.
+	 */
+	void restoreTally(boolean failed, boolean skipped, float duration) {
+		this.failed = failed;
+		this.skipped = skipped;
+		this.duration = duration;
+	}
+
 	@Override
 	public void tally() {
 		duration = 0.0f;
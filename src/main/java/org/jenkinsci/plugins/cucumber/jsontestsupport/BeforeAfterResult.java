@@ -39,15 +39,58 @@ public class BeforeAfterResult extends TestResult {
 
 	private static final long serialVersionUID = 1L;
 
+	private String location;
+	private ResultStatus status;
+	private String errorMessage;
+	/** in nanoseconds. */
+	private long duration;
+
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
 	private Match macth;
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
 	private Result result;
 
 	private transient Run<?, ?> owner;
 
 
 	public BeforeAfterResult(Match match, Result result) {
-		this.macth = match;
-		this.result = result;
+		this(match, result, StringTable.NONE);
+	}
+
+
+	/**
+	 * @param strings the table to share the strings of the hook through.
+	 */
+	BeforeAfterResult(Match match, Result result, StringTable strings) {
+		this(strings.get(CucumberUtils.getLocation(match)), ResultStatus.fromString(result.getStatus()),
+		     strings.get(result.getErrorMessage()), CucumberUtils.getDuration(result));
+	}
+
+
+	BeforeAfterResult(String location, ResultStatus status, String errorMessage, long duration) {
+		this.location = location;
+		this.status = status;
+		this.errorMessage = errorMessage;
+		this.duration = duration;
+	}
+
+
+	/**
+	 * Converts a result recorded by an older version that held on to the whole gherkin model.
+	 */
+	@SuppressWarnings("deprecation")
+	protected Object readResolve() {
+		if (result != null) {
+			location = CucumberUtils.getLocation(macth);
+			status = ResultStatus.fromString(result.getStatus());
+			errorMessage = result.getErrorMessage();
+			duration = CucumberUtils.getDuration(result);
+			macth = null;
+			result = null;
+		}
+		return this;
 	}
 
 
@@ -62,7 +105,7 @@ public class BeforeAfterResult extends TestResult {
 	 */
 	@Override
 	public int getPassCount() {
-		return CucumberUtils.PASSED_TEST_STRING.equals(result.getStatus()) ? 1 : 0;
+		return status == ResultStatus.PASSED ? 1 : 0;
 	}
 
 
@@ -71,11 +114,7 @@ public class BeforeAfterResult extends TestResult {
 	 */
 	@Override
 	public int getFailCount() {
-		if (CucumberUtils.FAILED_TEST_STRING.equals(result.getStatus())
-				  || CucumberUtils.UNDEFINED_TEST_STRING.equals(result.getStatus())) {
-			return 1;
-		}
-		return 0;
+		return status.isFailed() ? 1 : 0;
 	}
 
 
@@ -84,11 +123,7 @@ public class BeforeAfterResult extends TestResult {
 	 */
 	@Override
 	public int getSkipCount() {
-		if (CucumberUtils.SKIPPED_TEST_STRING.equals(result.getStatus())
-		    || CucumberUtils.PENDING_TEST_STRING.equals(result.getStatus())) {
-			return 1;
-		}
-		return 0;
+		return status.isSkipped() ? 1 : 0;
 	}
 
 
@@ -125,17 +160,29 @@ public class BeforeAfterResult extends TestResult {
 
 	@Override
 	public float getDuration() {
-		return CucumberUtils.durationFromResult(result);
+		return CucumberUtils.nanosToSeconds(duration);
+	}
+
+
+	/** The location of the hook, possibly <code>null</code>. */
+	String getLocation() {
+		return location;
+	}
+
+
+	ResultStatus getResultStatus() {
+		return status;
 	}
 
 
-	Match getMatch() {
-		return macth;
+	String getErrorMessage() {
+		return errorMessage;
 	}
 
 
-	Result getResult() {
-		return result;
+	/** The duration in nanoseconds. */
+	long getDurationNanos() {
+		return duration;
 	}
 
 }
@@ -0,0 +1,286 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.model.Job;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Shows the scenarios of the latest build of a job that took much longer than they did in the builds before, along
+ * with how long the scenarios of each feature take, as kept by its {@link ScenarioHistory}.
+ * <p>
+ * A scenario is shown when it took more than twice its 95th percentile duration, the factor can be set with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberDurationAction.factor</code> system property. It needs
+ * to have run in at least 5 builds before, which can be set with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberDurationAction.minDurations</code> system property.
+ *
+ * @author James Nord
+ */
+@ExportedBean
+public class CucumberDurationAction implements Action {
+
+	static final float FACTOR =
+	      Float.parseFloat(System.getProperty(CucumberDurationAction.class.getName() + ".factor", "2"));
+
+	static final int MIN_DURATIONS =
+	      Integer.getInteger(CucumberDurationAction.class.getName() + ".minDurations", 5).intValue();
+
+	private final Job<?, ?> job;
+
+
+	public CucumberDurationAction(Job<?, ?> job) {
+		this.job = job;
+	}
+
+
+	public Job<?, ?> getJob() {
+		return job;
+	}
+
+
+	public String getIconFileName() {
+		return "clock.png";
+	}
+
+
+	public String getDisplayName() {
+		return "Cucumber Duration Regressions";
+	}
+
+
+	public String getUrlName() {
+		return "cucumberDurations";
+	}
+
+
+	public Api getApi() {
+		return new Api(this);
+	}
+
+
+	/** How many times longer than its 95th percentile duration a scenario must take to be shown. */
+	@Exported
+	public float getFactor() {
+		return FACTOR;
+	}
+
+
+	/** The number of builds that the durations are taken from. */
+	@Exported
+	public int getWindow() {
+		return ScenarioHistory.WINDOW;
+	}
+
+
+	/**
+	 * The scenarios of the latest build that took much longer than before, those that slowed down the most first.
+	 */
+	@Exported(inline = true)
+	public List<DurationRegression> getRegressions() {
+		return ScenarioHistory.of(job).getDurationRegressions(FACTOR, MIN_DURATIONS);
+	}
+
+
+	/**
+	 * How long the scenarios of each feature of the latest build took in the builds before.
+	 */
+	@Exported(inline = true)
+	public List<FeatureDurations> getFeatures() {
+		List<FeatureDurations> features = new ArrayList<FeatureDurations>();
+		for (Map.Entry<String, DurationSketch> entry : ScenarioHistory.of(job).getFeatureDurations().entrySet()) {
+			DurationSketch sketch = entry.getValue();
+			if (sketch.getCount() > 0) {
+				features.add(new FeatureDurations(entry.getKey(), sketch.getCount(), sketch.getQuantile(0.5),
+				                                  sketch.getQuantile(0.95)));
+			}
+		}
+		return features;
+	}
+
+
+	static String getDurationString(float seconds) {
+		return Util.getTimeSpanString((long) (seconds * 1000));
+	}
+
+
+	/**
+	 * A scenario that took much longer than it did before.
+	 */
+	@ExportedBean(defaultVisibility = 2)
+	public static final class DurationRegression {
+
+		static final Comparator<DurationRegression> MOST_SLOWED_FIRST = new Comparator<DurationRegression>() {
+			public int compare(DurationRegression o1, DurationRegression o2) {
+				int c = Float.compare(o2.getRatio(), o1.getRatio());
+				return c != 0 ? c : o1.id.compareTo(o2.id);
+			}
+		};
+
+		private final String id;
+		private final int build;
+		private final float duration;
+		private final float median;
+		private final float p95;
+
+
+		DurationRegression(String id, int build, float duration, float median, float p95) {
+			this.id = id;
+			this.build = build;
+			this.duration = duration;
+			this.median = median;
+			this.p95 = p95;
+		}
+
+
+		/** The {@link ScenarioResult#getId() id} of the scenario. */
+		@Exported
+		public String getId() {
+			return id;
+		}
+
+
+		/** The number of the build that the scenario took longer in. */
+		@Exported
+		public int getBuild() {
+			return build;
+		}
+
+
+		/** How long the scenario took in the build, in seconds. */
+		@Exported
+		public float getDuration() {
+			return duration;
+		}
+
+
+		/** The median duration of the scenario before, in seconds. */
+		@Exported
+		public float getMedian() {
+			return median;
+		}
+
+
+		/** The 95th percentile duration of the scenario before, in seconds. */
+		@Exported
+		public float getP95() {
+			return p95;
+		}
+
+
+		/** How many times longer than its 95th percentile duration the scenario took. */
+		@Exported
+		public float getRatio() {
+			return duration / Math.max(p95, DurationSketch.MIN_DURATION);
+		}
+
+
+		public String getDurationString() {
+			return CucumberDurationAction.getDurationString(duration);
+		}
+
+
+		public String getMedianString() {
+			return CucumberDurationAction.getDurationString(median);
+		}
+
+
+		public String getP95String() {
+			return CucumberDurationAction.getDurationString(p95);
+		}
+
+
+		/** The URL of the scenario in the build, relative to the job. */
+		public String getUrl() {
+			return ScenarioHistory.getUrl(build, id);
+		}
+	}
+
+	/**
+	 * How long the scenarios of a feature took.
+	 */
+	@ExportedBean(defaultVisibility = 2)
+	public static final class FeatureDurations {
+
+		private final String id;
+		private final int count;
+		private final float median;
+		private final float p95;
+
+
+		FeatureDurations(String id, int count, float median, float p95) {
+			this.id = id;
+			this.count = count;
+			this.median = median;
+			this.p95 = p95;
+		}
+
+
+		/** The {@link FeatureResult#getId() id} of the feature. */
+		@Exported
+		public String getId() {
+			return id;
+		}
+
+
+		/** The number of durations of its scenarios that the feature's durations are taken from. */
+		@Exported
+		public int getCount() {
+			return count;
+		}
+
+
+		/** The median duration of the scenarios of the feature, in seconds. */
+		@Exported
+		public float getMedian() {
+			return median;
+		}
+
+
+		/** The 95th percentile duration of the scenarios of the feature, in seconds. */
+		@Exported
+		public float getP95() {
+			return p95;
+		}
+
+
+		public String getMedianString() {
+			return CucumberDurationAction.getDurationString(median);
+		}
+
+
+		public String getP95String() {
+			return CucumberDurationAction.getDurationString(p95);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.model.Action;
+import hudson.model.Api;
+import hudson.model.Job;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Shows the scenarios of a job that flip between passing and failing most often, as kept by its
+ * {@link ScenarioHistory}, so it is worked out from the history alone rather than the results of the builds.
+ * <p>
+ * The number of scenarios shown defaults to 50 and can be set with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberFlakinessAction.limit</code> system property.
+ *
+ * @author James Nord
+ */
+@ExportedBean
+public class CucumberFlakinessAction implements Action {
+
+	static final int LIMIT = Integer.getInteger(CucumberFlakinessAction.class.getName() + ".limit", 50).intValue();
+
+	private final Job<?, ?> job;
+
+
+	public CucumberFlakinessAction(Job<?, ?> job) {
+		this.job = job;
+	}
+
+
+	public Job<?, ?> getJob() {
+		return job;
+	}
+
+
+	public String getIconFileName() {
+		return "clipboard.png";
+	}
+
+
+	public String getDisplayName() {
+		return "Flaky Cucumber Scenarios";
+	}
+
+
+	public String getUrlName() {
+		return "cucumberFlakiness";
+	}
+
+
+	public Api getApi() {
+		return new Api(this);
+	}
+
+
+	/** The number of the latest records of each scenario that its flakiness is worked out from. */
+	@Exported
+	public int getWindow() {
+		return ScenarioHistory.WINDOW;
+	}
+
+
+	/**
+	 * The scenarios of the job that flip between passing and failing most often, most flaky first.
+	 */
+	@Exported(inline = true)
+	public List<FlakyScenario> getScenarios() {
+		return ScenarioHistory.of(job).getFlakiest(LIMIT);
+	}
+
+
+	/**
+	 * How often a scenario has flipped between passing and failing in its latest builds.
+	 */
+	@ExportedBean(defaultVisibility = 2)
+	public static final class FlakyScenario {
+
+		static final Comparator<FlakyScenario> LEAST_FLAKY_FIRST = new Comparator<FlakyScenario>() {
+			public int compare(FlakyScenario o1, FlakyScenario o2) {
+				int c = Float.compare(o1.getFlipRate(), o2.getFlipRate());
+				if (c == 0) {
+					c = o1.flips - o2.flips;
+				}
+				// the same flakiness is in order of id, which comes first is the flakier
+				return c != 0 ? c : o2.id.compareTo(o1.id);
+			}
+		};
+
+		private final String id;
+		private final int flips;
+		private final int builds;
+		private final ScenarioHistory.Record last;
+
+
+		FlakyScenario(String id, int flips, int builds, ScenarioHistory.Record last) {
+			this.id = id;
+			this.flips = flips;
+			this.builds = builds;
+			this.last = last;
+		}
+
+
+		/** The {@link ScenarioResult#getId() id} of the scenario. */
+		@Exported
+		public String getId() {
+			return id;
+		}
+
+
+		/** The number of its latest builds in which the scenario passed when it had failed before or vice versa. */
+		@Exported
+		public int getFlips() {
+			return flips;
+		}
+
+
+		/** The number of builds that the flips are out of. */
+		@Exported
+		public int getBuilds() {
+			return builds;
+		}
+
+
+		/** The proportion of its latest builds in which the scenario flipped, between 0 and 1. */
+		@Exported
+		public float getFlipRate() {
+			return (float) flips / builds;
+		}
+
+
+		/** The flip rate as a whole percentage. */
+		public int getFlipPercentage() {
+			return Math.round(getFlipRate() * 100);
+		}
+
+
+		/** The number of the last build that the scenario was run in. */
+		@Exported
+		public int getLastBuild() {
+			return last.getBuild();
+		}
+
+
+		@Exported
+		public boolean isLastPassed() {
+			return last.isPassed();
+		}
+
+
+		/** The URL of the scenario in its last build, relative to the job. */
+		public String getUrl() {
+			return ScenarioHistory.getUrl(last.getBuild(), id);
+		}
+	}
+}
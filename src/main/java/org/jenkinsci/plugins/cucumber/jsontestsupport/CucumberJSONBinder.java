@@ -0,0 +1,557 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.model.TaskListener;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.codec.binary.Base64OutputStream;
+
+/**
+ * Binds Cucumber JSON directly into {@link FeatureResult}s, {@link ScenarioResult}s, {@link StepResult}s and
+ * {@link BeforeAfterResult}s as it is read, without building Gherkin's model first.
+ *
+ * @author James Nord
+ */
+final class CucumberJSONBinder {
+
+	private static final Logger LOG = Logger.getLogger(CucumberJSONBinder.class.getName());
+
+	private final CucumberTestResult testResult;
+	/** shares the strings of everything parsed by this binder. */
+	private final StringTable strings = new StringTable();
+	private final TaskListener listener;
+	private final boolean ignoreBadSteps;
+	/** Where to write embedded items, <code>null</code> for the temporary directory. */
+	private final File embedDirectory;
+
+
+	CucumberJSONBinder(CucumberTestResult testResult, TaskListener listener, boolean ignoreBadSteps) {
+		this(testResult, listener, ignoreBadSteps, null);
+	}
+
+
+	CucumberJSONBinder(CucumberTestResult testResult, TaskListener listener, boolean ignoreBadSteps,
+	                   File embedDirectory) {
+		this.testResult = testResult;
+		this.listener = listener;
+		this.ignoreBadSteps = ignoreBadSteps;
+		this.embedDirectory = embedDirectory;
+	}
+
+
+	void parse(File file) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			parse(new JSONStreamReader(fis.getChannel()));
+		}
+		finally {
+			fis.close();
+		}
+	}
+
+
+	void parse(JSONStreamReader reader) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			feature(reader);
+		}
+		reader.endArray();
+	}
+
+
+	private void feature(JSONStreamReader reader) throws IOException {
+		String uri = null;
+		String keyword = null;
+		String name = null;
+		String description = null;
+		String id = null;
+		Integer line = null;
+		List<Statement.Line> comments = null;
+		List<Statement.Line> tags = null;
+		// the elements may come before the features details, so skip over them and come back later.
+		JSONStreamReader.Mark elements = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if ("uri".equals(key)) {
+				uri = reader.nextString();
+			}
+			else if ("keyword".equals(key)) {
+				keyword = reader.nextString();
+			}
+			else if ("name".equals(key)) {
+				name = reader.nextString();
+			}
+			else if ("description".equals(key)) {
+				description = reader.nextString();
+			}
+			else if ("id".equals(key)) {
+				id = reader.nextString();
+			}
+			else if ("line".equals(key)) {
+				line = reader.nextInteger();
+			}
+			else if ("comments".equals(key)) {
+				comments = lines(reader, "value");
+			}
+			else if ("tags".equals(key)) {
+				tags = lines(reader, "name");
+			}
+			else if ("elements".equals(key) && reader.peek() == JSONStreamReader.Token.BEGIN_ARRAY) {
+				elements = reader.mark();
+				reader.skipValue();
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		LOG.log(Level.FINE, "Feature: {0}{1}", new Object[] {keyword, name});
+		FeatureResult featureResult = new FeatureResult(strings.get(uri), new Statement(comments, tags,
+		      strings.get(keyword), strings.get(name), strings.get(description), toLine(line), strings.get(id), null));
+		testResult.addFeatureResult(featureResult);
+		if (elements != null) {
+			JSONStreamReader.Mark end = reader.mark();
+			reader.reset(elements);
+			ElementState state = new ElementState();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				featureElement(reader, featureResult, state);
+			}
+			reader.endArray();
+			reader.reset(end);
+		}
+	}
+
+
+	private void featureElement(JSONStreamReader reader, FeatureResult featureResult, ElementState state)
+	      throws IOException {
+		String type = null;
+		String keyword = null;
+		String name = null;
+		String description = null;
+		String id = null;
+		Integer line = null;
+		List<Statement.Line> comments = null;
+		List<Statement.Line> tags = null;
+		List<BeforeAfterResult> before = Collections.emptyList();
+		List<StepResult> steps = new ArrayList<StepResult>();
+		List<EmbeddedItem> embeddedItems = new ArrayList<EmbeddedItem>(0);
+		List<BeforeAfterResult> after = Collections.emptyList();
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if ("type".equals(key)) {
+				type = reader.nextString();
+			}
+			else if ("keyword".equals(key)) {
+				keyword = reader.nextString();
+			}
+			else if ("name".equals(key)) {
+				name = reader.nextString();
+			}
+			else if ("description".equals(key)) {
+				description = reader.nextString();
+			}
+			else if ("id".equals(key)) {
+				id = reader.nextString();
+			}
+			else if ("line".equals(key)) {
+				line = reader.nextInteger();
+			}
+			else if ("comments".equals(key)) {
+				comments = lines(reader, "value");
+			}
+			else if ("tags".equals(key)) {
+				tags = lines(reader, "name");
+			}
+			else if ("before".equals(key)) {
+				before = hooks(reader);
+			}
+			else if ("steps".equals(key)) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					StepResult stepResult = step(reader, embeddedItems);
+					if (stepResult != null) {
+						steps.add(stepResult);
+					}
+				}
+				reader.endArray();
+			}
+			else if ("after".equals(key)) {
+				after = hooks(reader);
+			}
+			else {
+				// examples are only present in Gherkin json, not in Cucumber's results.
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		if ("background".equals(type)) {
+			LOG.log(Level.FINE, "Background: {0}", name);
+			if (state.background != null) {
+				throw new CucumberModelException("Background: {" + name + "} received before previous background: {"
+				                                 + state.background.getName() + "} handled");
+			}
+			state.background = new BackgroundResult(new Statement(comments, null, strings.get(keyword),
+			      strings.get(name), strings.get(description), toLine(line), null, null));
+			for (StepResult stepResult : steps) {
+				state.background.addStepResult(stepResult);
+			}
+			// anything embedded by the background belongs to the scenario it is run for.
+			state.embeddedItems = embeddedItems;
+		}
+		else if ("scenario".equals(type)) {
+			LOG.log(Level.FINE, "Scenario: {0} {1}", new Object[] {keyword, name});
+			ScenarioResult scenarioResult = new ScenarioResult(new Statement(comments, tags, strings.get(keyword),
+			      strings.get(name), strings.get(description), toLine(line), strings.get(id), null), state.background);
+			featureResult.addScenarioResult(scenarioResult);
+			for (BeforeAfterResult beforeResult : before) {
+				scenarioResult.addBeforeResult(beforeResult);
+			}
+			for (StepResult stepResult : steps) {
+				scenarioResult.addStepResult(stepResult);
+			}
+			for (BeforeAfterResult afterResult : after) {
+				scenarioResult.addAfterResult(afterResult);
+			}
+			for (EmbeddedItem item : state.embeddedItems) {
+				scenarioResult.addEmbeddedItem(item);
+			}
+			for (EmbeddedItem item : embeddedItems) {
+				scenarioResult.addEmbeddedItem(item);
+			}
+			state.background = null;
+			state.embeddedItems = Collections.emptyList();
+		}
+		else if ("scenario_outline".equals(type)) {
+			// cucumber reports the expanded scenarios, the outline itself has no results.
+			LOG.log(Level.FINE, "ScenarioOutline: {0}", name);
+		}
+		else {
+			throw new CucumberModelException("Unknown feature element type (" + type + ") for " + keyword + ": "
+			                                 + name + " on line " + line);
+		}
+	}
+
+
+	/**
+	 * Reads a step.
+	 *
+	 * @param embeddedItems the list to add any items embedded by the step to.
+	 * @return the result of the step or <code>null</code> if the step has no result and bad steps are ignored.
+	 */
+	private StepResult step(JSONStreamReader reader, List<EmbeddedItem> embeddedItems) throws IOException {
+		String keyword = null;
+		String name = null;
+		Integer line = null;
+		List<Statement.Line> comments = null;
+		List<Statement.Row> rows = null;
+		String location = null;
+		Outcome result = null;
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if ("keyword".equals(key)) {
+				keyword = reader.nextString();
+			}
+			else if ("name".equals(key)) {
+				name = reader.nextString();
+			}
+			else if ("line".equals(key)) {
+				line = reader.nextInteger();
+			}
+			else if ("comments".equals(key)) {
+				comments = lines(reader, "value");
+			}
+			else if ("rows".equals(key)) {
+				rows = rows(reader);
+			}
+			else if ("match".equals(key)) {
+				location = location(reader);
+			}
+			else if ("result".equals(key)) {
+				result = result(reader);
+			}
+			else if ("embeddings".equals(key)) {
+				embeddings(reader, embeddedItems);
+			}
+			else {
+				// doc strings and output are not recorded
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		if (result == null) {
+			String error = "Step: {" + keyword + "} name: {" + name + "} on line " + line
+			               + " has no result! Maybe caused by broken JSON, see #JENKINS-21835";
+			listener.error(error);
+			LOG.log(Level.SEVERE, error);
+			if (!ignoreBadSteps) {
+				throw new CucumberModelException(error);
+			}
+			return null;
+		}
+		Statement statement = new Statement(comments, null, strings.get(keyword), strings.get(name), null,
+		                                    toLine(line), null, rows);
+		return new StepResult(statement, location, result.status, result.errorMessage, result.duration);
+	}
+
+
+	/**
+	 * Reads the embedded items of a step, decoding the base64 data straight to a file so that (potentially large)
+	 * screenshots are never held in memory.
+	 */
+	private void embeddings(JSONStreamReader reader, List<EmbeddedItem> embeddedItems) throws IOException {
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String mimeType = null;
+			File f = null;
+			MessageDigest digest = EmbeddedItemStore.newDigest();
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String key = reader.nextName();
+				if ("mime_type".equals(key)) {
+					mimeType = reader.nextString();
+				}
+				else if ("data".equals(key) && f == null) {
+					f = createEmbedFile();
+					OutputStream os = new Base64OutputStream(new DigestOutputStream(new BufferedOutputStream(
+					      new FileOutputStream(f)), digest), false);
+					try {
+						reader.nextString(os);
+					}
+					finally {
+						os.close();
+					}
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			LOG.log(Level.FINE, "embedding: {0}", mimeType);
+			if (f == null) {
+				f = createEmbedFile();
+			}
+			String hash = EmbeddedItemStore.toHash(digest);
+			embeddedItems.add(new EmbeddedItem(mimeType, CucumberUtils.renameEmbedFile(f, hash), hash));
+		}
+		reader.endArray();
+	}
+
+
+	private File createEmbedFile() {
+		try {
+			return CucumberUtils.createEmbedFile(embedDirectory);
+		}
+		catch (IOException ex) {
+			throw new CucumberPluginException("Failed to create file for embedded data", ex);
+		}
+	}
+
+
+	private List<BeforeAfterResult> hooks(JSONStreamReader reader) throws IOException {
+		List<BeforeAfterResult> hooks = new ArrayList<BeforeAfterResult>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String location = null;
+			Outcome result = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String key = reader.nextName();
+				if ("match".equals(key)) {
+					location = location(reader);
+				}
+				else if ("result".equals(key)) {
+					result = result(reader);
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			if (result == null) {
+				result = new Outcome();
+			}
+			hooks.add(new BeforeAfterResult(location, result.status, result.errorMessage, result.duration));
+		}
+		reader.endArray();
+		return hooks;
+	}
+
+
+	/**
+	 * Reads the outcome of a step or hook.
+	 */
+	private Outcome result(JSONStreamReader reader) throws IOException {
+		Outcome outcome = new Outcome();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if ("status".equals(key)) {
+				outcome.status = ResultStatus.fromString(reader.nextString());
+			}
+			else if ("duration".equals(key)) {
+				Long duration = reader.nextLong();
+				outcome.duration = duration == null ? 0L : duration.longValue();
+			}
+			else if ("error_message".equals(key)) {
+				outcome.errorMessage = strings.get(reader.nextString());
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return outcome;
+	}
+
+
+	/**
+	 * Reads the location of the step definition that a step or hook matched, the arguments are not shown.
+	 */
+	private String location(JSONStreamReader reader) throws IOException {
+		String location = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			if ("location".equals(key)) {
+				location = strings.get(reader.nextString());
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return location;
+	}
+
+
+	private List<Statement.Row> rows(JSONStreamReader reader) throws IOException {
+		List<Statement.Row> rows = new ArrayList<Statement.Row>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			List<Statement.Line> comments = null;
+			List<String> cells = new ArrayList<String>();
+			Integer line = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String key = reader.nextName();
+				if ("cells".equals(key)) {
+					reader.beginArray();
+					while (reader.hasNext()) {
+						cells.add(strings.get(reader.nextString()));
+					}
+					reader.endArray();
+				}
+				else if ("comments".equals(key)) {
+					comments = lines(reader, "value");
+				}
+				else if ("line".equals(key)) {
+					line = reader.nextInteger();
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			rows.add(new Statement.Row(comments, cells, toLine(line)));
+		}
+		reader.endArray();
+		return rows;
+	}
+
+
+	/**
+	 * Reads comments or tags.
+	 *
+	 * @param textKey the name of the text of each, <code>value</code> for comments and <code>name</code> for tags.
+	 */
+	private List<Statement.Line> lines(JSONStreamReader reader, String textKey) throws IOException {
+		List<Statement.Line> lines = new ArrayList<Statement.Line>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String text = null;
+			Integer line = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				String key = reader.nextName();
+				if (textKey.equals(key)) {
+					text = strings.get(reader.nextString());
+				}
+				else if ("line".equals(key)) {
+					line = reader.nextInteger();
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			reader.endObject();
+			lines.add(new Statement.Line(text, toLine(line)));
+		}
+		reader.endArray();
+		return lines;
+	}
+
+
+	private static int toLine(Integer line) {
+		return line == null ? 0 : line.intValue();
+	}
+
+
+	/** The outcome of a step or hook. */
+	private static final class Outcome {
+		ResultStatus status = ResultStatus.UNKNOWN;
+		long duration;
+		String errorMessage;
+	}
+
+	/** The state carried between the elements of a feature. */
+	private static final class ElementState {
+		/** The background waiting for the scenario it is run for. */
+		BackgroundResult background;
+		List<EmbeddedItem> embeddedItems = Collections.emptyList();
+	}
+}
@@ -23,19 +23,25 @@
  */
 package org.jenkinsci.plugins.cucumber.jsontestsupport;
 
-import gherkin.JSONParser;
 import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
-import org.apache.commons.io.FileUtils;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Parser that understands Cucumbers <a href="http://cukes.info/reports.html#json">JSON</a> notation and will
@@ -45,7 +51,12 @@ import org.apache.commons.io.FileUtils;
 public class CucumberJSONParser extends DefaultTestResultParserImpl {
 
 	private static final long serialVersionUID = -296964473181541824L;
+
 	private boolean ignoreBadSteps;
+	/** The number of threads to parse reports with, values less than 2 parse the reports sequentially. */
+	private int parserThreads;
+	/** The directory on the agent to decode embedded items into, or <code>null</code> for the temporary directory. */
+	private String embedDirectory;
 
 	public CucumberJSONParser() {
 	}
@@ -54,6 +65,18 @@ public class CucumberJSONParser extends DefaultTestResultParserImpl {
 		this.ignoreBadSteps = ignoreBadSteps;
 	}
 
+	public CucumberJSONParser(boolean ignoreBadSteps, int parserThreads){
+		this(ignoreBadSteps);
+		this.parserThreads = parserThreads;
+	}
+
+	/**
+	 * Sets the directory (on the node that will parse the reports) that embedded items should be written to.
+	 */
+	void setEmbedDirectory(String embedDirectory) {
+		this.embedDirectory = embedDirectory;
+	}
+
 	@Override
 	public String getDisplayName() {
 		return "Cucumber JSON parser";
@@ -61,33 +84,96 @@ public class CucumberJSONParser extends DefaultTestResultParserImpl {
 
 	@Override
 	protected CucumberTestResult parse(List<File> reportFiles, TaskListener listener) throws InterruptedException, IOException {
-		
-		CucumberTestResult result = new CucumberTestResult();
-		GherkinCallback callback = new GherkinCallback(result, listener, ignoreBadSteps);
 		listener.getLogger().println("[Cucumber Tests] Parsing results.");
-		JSONParser jsonParser = new JSONParser(callback, callback);
-		
+		CucumberTestResult result;
+		int threads = Math.min(Math.min(parserThreads, reportFiles.size()), Runtime.getRuntime().availableProcessors());
+		if (threads > 1) {
+			result = parseConcurrently(reportFiles, listener, threads);
+		}
+		else {
+			result = new CucumberTestResult();
+			parse(reportFiles, result, listener);
+		}
+		result.tally();
+		return result;
+	}
+
+
+	/**
+	 * Parses each file on its own thread, then merges the results in the order of the files so that the features
+	 * (and hence their safe names) are the same as if the files had been parsed sequentially.
+	 */
+	private CucumberTestResult parseConcurrently(List<File> reportFiles, final TaskListener listener, int threads)
+	      throws InterruptedException, IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+		                                                        new NamingThreadFactory(new DaemonThreadFactory(),
+		                                                                                "Cucumber JSON parser"));
+		try {
+			List<Future<CucumberTestResult>> partials = new ArrayList<Future<CucumberTestResult>>(reportFiles.size());
+			for (final File f : reportFiles) {
+				partials.add(executor.submit(new Callable<CucumberTestResult>() {
+					public CucumberTestResult call() throws Exception {
+						CucumberTestResult partial = new CucumberTestResult();
+						parse(Collections.singletonList(f), partial, listener);
+						return partial;
+					}
+				}));
+			}
+			CucumberTestResult result = new CucumberTestResult();
+			for (Future<CucumberTestResult> partial : partials) {
+				for (FeatureResult featureResult : get(partial).getFeatures()) {
+					result.addFeatureResult(featureResult);
+				}
+			}
+			return result;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	private static CucumberTestResult get(Future<CucumberTestResult> future) throws InterruptedException, IOException {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Failed to parse Cucumber JSON", cause);
+		}
+	}
+
+
+	/**
+	 * Parses the given files adding the features to <code>result</code>.
+	 */
+	private void parse(List<File> reportFiles, CucumberTestResult result, TaskListener listener) throws IOException {
+		// reports can be hundreds of MB (mostly embedded screenshots) so stream them rather than reading them whole.
+		File embedDir = embedDirectory == null ? null : new File(embedDirectory);
+		CucumberJSONBinder binder = new CucumberJSONBinder(result, listener, ignoreBadSteps, embedDir);
 		try {
 			for (File f : reportFiles) {
-				String s = FileUtils.readFileToString(f, "UTF-8");
 				// if no scenarios where executed for a feature then a json file may still exist.
-				if (s.isEmpty()) {
+				if (f.length() == 0) {
 					listener.getLogger().println("[Cucumber Tests] ignoring empty file (" + f.getName() + ")");
 				}
 				else {listener.getLogger().println("[Cucumber Tests] parsing " + f.getName());
-					jsonParser.parse(s);
+					binder.parse(f);
 				}
 			}
 		}
 		catch (CucumberModelException ccm) {
 			throw new AbortException("Failed to parse Cucumber JSON: " + ccm.getMessage());
 		}
-		finally {
-			// even though this is a noop prevent an eclipse warning.
-			callback.close();
-		}
-		result.tally();
-		return result;
 	}
 
 
@@ -0,0 +1,323 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds the {@link CucumberTestResult}s of recently viewed builds across the whole of Jenkins, up to an estimated
+ * amount of memory. When the budget is exceeded the least recently used results are evicted, and will be loaded
+ * from disk again when they are next needed.
+ * <p>
+ * The budget defaults to a tenth of the maximum heap and can be set in megabytes with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberResultCache.maxSizeMB</code> system property.
+ * <p>
+ * A result that is not cached is loaded at most once at a time, concurrent requests for the same build wait for
+ * that load to complete while requests for other builds carry on unhindered.
+ *
+ * @author James Nord
+ */
+public final class CucumberResultCache {
+
+	private static final Logger LOGGER = Logger.getLogger(CucumberResultCache.class.getName());
+
+	private static final long MB = 1024 * 1024;
+
+	private static final CucumberResultCache INSTANCE =
+	      new CucumberResultCache(Long.getLong(CucumberResultCache.class.getName() + ".maxSizeMB",
+	                                           Runtime.getRuntime().maxMemory() / 10 / MB).longValue() * MB);
+
+	private final long maxSize;
+
+	/** guarded by this, in least recently used order. */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	/** guarded by this, the results that are currently being loaded. */
+	private final Map<String, FutureTask<CucumberTestResult>> loading =
+	      new HashMap<String, FutureTask<CucumberTestResult>>();
+
+	/* guarded by this */
+	private long size;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+
+	CucumberResultCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+
+	public static CucumberResultCache getInstance() {
+		return INSTANCE;
+	}
+
+
+	/**
+	 * Gets the cached result for a build.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @return the result or <code>null</code> if it is not cached.
+	 */
+	synchronized CucumberTestResult get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return entry.result;
+	}
+
+
+	/**
+	 * Gets the cached result for a build, loading and caching it if it is not cached. Only one thread loads the
+	 * result of a build, any others asking for it in the meantime wait for and share that thread's result.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @param loader loads the result when it is not cached.
+	 * @return the result, or <code>null</code> if it could not be loaded, which is logged and not cached so it is
+	 *         loaded again next time.
+	 */
+	CucumberTestResult get(String key, final Loader loader) {
+		FutureTask<CucumberTestResult> task;
+		boolean load = false;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				hitCount++;
+				return entry.result;
+			}
+			missCount++;
+			task = loading.get(key);
+			if (task == null) {
+				task = new FutureTask<CucumberTestResult>(new Callable<CucumberTestResult>() {
+					public CucumberTestResult call() throws Exception {
+						return loader.load();
+					}
+				});
+				loading.put(key, task);
+				load = true;
+			}
+		}
+		CucumberTestResult result;
+		if (load) {
+			// load outside of the lock so the cache is not blocked by a slow load
+			task.run();
+			result = getQuietly(task);
+			long size = result == null ? 0 : loader.estimateSize(result);
+			synchronized (this) {
+				loading.remove(key);
+				// a result set whilst we were loading is newer than the one we loaded
+				if (result != null && !entries.containsKey(key)) {
+					put(key, result, size);
+				}
+			}
+		}
+		else {
+			result = getQuietly(task);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Waits for the task to complete, ignoring interrupts, and returns its result or <code>null</code> if it failed.
+	 */
+	private static CucumberTestResult getQuietly(FutureTask<CucumberTestResult> task) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					LOGGER.log(Level.WARNING, "Failed to load a Cucumber result", e.getCause());
+					return null;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	/**
+	 * Caches the result of a build, replacing any previous result, and evicts the least recently used results if
+	 * that takes the cache over budget. The most recent result is always kept even if it alone exceeds the budget.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @param result the result to cache.
+	 * @param estimatedSize an estimate of the memory used by the result in bytes.
+	 */
+	synchronized void put(String key, CucumberTestResult result, long estimatedSize) {
+		Entry previous = entries.put(key, new Entry(result, estimatedSize));
+		if (previous != null) {
+			size -= previous.size;
+		}
+		size += estimatedSize;
+		Iterator<java.util.Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (size > maxSize && entries.size() > 1) {
+			java.util.Map.Entry<String, Entry> eldest = it.next();
+			it.remove();
+			size -= eldest.getValue().size;
+			evictionCount++;
+			LOGGER.log(Level.FINE, "Evicted the Cucumber result of {0} ({1} bytes)",
+			           new Object[] { eldest.getKey(), Long.valueOf(eldest.getValue().size) });
+		}
+	}
+
+
+	/**
+	 * Adds to the estimated size of the cached result of a build when more of it, such as the scenarios of a feature,
+	 * has been loaded.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @param additionalSize an estimate of the memory used by what was loaded in bytes.
+	 */
+	synchronized void grow(String key, long additionalSize) {
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			put(key, entry.result, entry.size + additionalSize);
+		}
+	}
+
+
+	/**
+	 * Updates the estimated size of a result if it is still the cached result of the build.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @param result the result that was cached.
+	 * @param estimatedSize an estimate of the memory used by the result in bytes.
+	 */
+	synchronized void update(String key, CucumberTestResult result, long estimatedSize) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.result == result) {
+			put(key, result, estimatedSize);
+		}
+	}
+
+
+	/**
+	 * Removes the result of a build, if it is cached.
+	 */
+	synchronized void remove(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			size -= entry.size;
+		}
+	}
+
+
+	/** The memory budget in bytes. */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+
+	/** The estimated memory used by the cached results in bytes. */
+	public synchronized long getSize() {
+		return size;
+	}
+
+
+	/** The number of cached results. */
+	public synchronized int getCount() {
+		return entries.size();
+	}
+
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+
+	@Override
+	public synchronized String toString() {
+		return "CucumberResultCache[results=" + entries.size() + ", size=" + size + ", maxSize=" + maxSize
+		       + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+	}
+
+
+	/**
+	 * Loads the result of a build that is not cached.
+	 */
+	interface Loader {
+
+		CucumberTestResult load() throws Exception;
+
+
+		/** An estimate of the memory used by the loaded result in bytes. */
+		long estimateSize(CucumberTestResult result);
+	}
+
+	private static final class Entry {
+
+		final CucumberTestResult result;
+		final long size;
+
+
+		Entry(CucumberTestResult result, long size) {
+			this.result = result;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Drops the result of a build when the build is deleted rather than waiting for it to be evicted.
+	 */
+	@Extension
+	public static final class RunDeletedListener extends RunListener<Run<?, ?>> {
+
+		@Override
+		public void onDeleted(Run<?, ?> run) {
+			INSTANCE.remove(run.getExternalizableId());
+		}
+	}
+}
@@ -0,0 +1,988 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.tasks.junit.CaseResult.Status;
+import hudson.tasks.test.TestResult;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads and writes a {@link CucumberTestResult} in a compact binary form, which is much smaller and quicker to
+ * load than the XStream XML that was used previously.
+ * <p>
+ * A result is stored in a directory as a summary of the features and tags with their tallied counts along with the
+ * positions of the failed scenarios and of the scenarios with each tag, and a file for the scenarios of each
+ * feature with their tallied state, status against earlier builds and safe names. Reading a result only reads the
+ * summary and nothing is tallied again, the scenarios of a feature are read when they are first needed.
+ * <p>
+ * Features merged into a result that has been written are appended as a segment, which is a summary of just the
+ * new features that is named after the index of its first feature, so that a merge does not rewrite what is
+ * already there. The segments are folded into the summary once the build is complete.
+ * <p>
+ * Each file starts with a magic number and a format version. Every string is written once, the first time it is
+ * seen, and thereafter by its index in the string table of the file. The strings read from all of the files of a
+ * result are shared through its {@link StringTable}. Counts, lines and durations (in nanoseconds, as reported
+ * by Cucumber) are written as variable length integers.
+ *
+ * @author James Nord
+ */
+final class CucumberResultCodec {
+
+	/** "CUKE" */
+	static final int MAGIC = 0x43554B45;
+
+	static final int VERSION = 1;
+
+	static final String SUMMARY_FILE = "summary.bin";
+
+	/** the model is ~8 times larger in memory than the binary format it is read from. */
+	static final int EXPANSION = 8;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+
+	private CucumberResultCodec() {
+	}
+
+
+	/**
+	 * Writes the result to the given directory. The result must have been {@link CucumberTestResult#tally()
+	 * tallied}.
+	 */
+	static void write(CucumberTestResult result, File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Failed to create " + directory);
+		}
+		List<FeatureResult> features = new ArrayList<FeatureResult>(result.getFeatures());
+		Map<ScenarioResult, Long> references = writeScenarios(directory, features, 0);
+
+		Summary summary = new Summary(StringTable.NONE);
+		summary.features.addAll(features);
+		for (TagResult tag : result.getTagMap().values()) {
+			TagSummary tagSummary = summary.getTag(tag.getName());
+			tagSummary.add(tag);
+			tagSummary.references.addAll(getReferences(tag.getChildren(), references));
+		}
+		summary.failed.addAll(getReferences(result.getFailedTests(), references));
+		// the summary is written last so a result is not seen until it is complete.
+		writeSummary(new File(directory, SUMMARY_FILE), summary, -1);
+	}
+
+
+	/**
+	 * Appends the features of a result that are not in the result written to the given directory as a new segment,
+	 * without rewriting what has already been written. The scenarios of the new features must have been tallied.
+	 *
+	 * @param result a result {@link CucumberTestResult#merge(CucumberTestResult) merged} from the one that was
+	 *           written to the directory.
+	 * @param directory the directory the result was written to.
+	 * @param first the number of features the result had when it was last written or appended.
+	 */
+	static void append(CucumberTestResult result, File directory, int first) throws IOException {
+		List<FeatureResult> all = new ArrayList<FeatureResult>(result.getFeatures());
+		List<FeatureResult> features = all.subList(first, all.size());
+		Map<ScenarioResult, Long> references = writeScenarios(directory, features, first);
+
+		Summary segment = new Summary(StringTable.NONE);
+		segment.features.addAll(features);
+		for (FeatureResult feature : features) {
+			for (ScenarioResult scenario : feature.getChildren()) {
+				for (String tagName : CucumberTestResult.getTagNames(scenario)) {
+					TagSummary tagSummary = segment.getTag(tagName);
+					tagSummary.add(scenario);
+					tagSummary.references.add(references.get(scenario));
+				}
+			}
+			segment.failed.addAll(getReferences(feature.getFailedTests(), references));
+		}
+		// the segment only becomes part of the result once it has been renamed.
+		File tmp = new File(directory, "segment-" + first + ".tmp");
+		writeSummary(tmp, segment, first);
+		Files.move(tmp.toPath(), getSegmentFile(directory, first).toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+
+
+	/**
+	 * Folds any segments that have been {@link #append(CucumberTestResult, File, int) appended} to the result in
+	 * the given directory into its summary. The scenarios are not read or rewritten.
+	 *
+	 * @return <code>true</code> if there were any segments.
+	 */
+	static boolean compact(File directory) throws IOException {
+		Summary summary = readSummary(directory, StringTable.NONE);
+		if (summary.segments.isEmpty()) {
+			return false;
+		}
+		File tmp = new File(directory, "summary.tmp");
+		writeSummary(tmp, summary, -1);
+		Files.move(tmp.toPath(), new File(directory, SUMMARY_FILE).toPath(), StandardCopyOption.ATOMIC_MOVE);
+		// any left behind are ignored as they start before the end of the new summary
+		for (File segment : summary.segments) {
+			Files.deleteIfExists(segment.toPath());
+		}
+		return true;
+	}
+
+
+	/**
+	 * Reads the summary of a result from the given directory. The totals are as they were when the result was
+	 * written, the scenarios of each feature are read from the directory when they are first needed.
+	 */
+	static CucumberTestResult read(File directory) throws IOException {
+		CucumberTestResult result = new CucumberTestResult();
+		Summary summary = readSummary(directory, result.getStringTable());
+		for (FeatureResult feature : summary.features) {
+			result.addFeatureResult(feature);
+		}
+		List<TagResult> tags = new ArrayList<TagResult>(summary.tags.size());
+		for (Map.Entry<String, TagSummary> entry : summary.tags.entrySet()) {
+			TagSummary tagSummary = entry.getValue();
+			TagResult tag = new TagResult(entry.getKey());
+			tag.restoreTally(new ScenarioReferences(summary.features, tagSummary.references), tagSummary.passCount,
+			                 tagSummary.failCount, tagSummary.skipCount, tagSummary.duration);
+			tags.add(tag);
+		}
+		result.restoreTally(tags, new ScenarioReferences(summary.features, summary.failed));
+		return result;
+	}
+
+
+	/**
+	 * A rough estimate of the memory used by a result written to the given directory, which only counts the
+	 * scenarios of the features that are loaded as the others are only read when they are needed.
+	 */
+	static long estimateSize(File directory, CucumberTestResult result) {
+		long size = new File(directory, SUMMARY_FILE).length();
+		int i = 0;
+		for (FeatureResult feature : result.getFeatures()) {
+			size += getSegmentFile(directory, i).length();
+			if (feature.isScenariosLoaded()) {
+				size += getScenarioFile(directory, i).length();
+			}
+			i++;
+		}
+		return size * EXPANSION;
+	}
+
+
+	/**
+	 * Reads the scenarios of a feature that was restored by {@link #read(File)}.
+	 */
+	static void readScenarios(File file, FeatureResult feature) throws IOException {
+		InputStream is = new FileInputStream(file);
+		try {
+			Decoder in = new Decoder(is, ((CucumberTestResult) feature.getParent()).getStringTable());
+			in.readHeader();
+			for (int i = in.readVarInt(); i > 0; i--) {
+				feature.addScenarioResult(in.readScenario());
+			}
+		}
+		finally {
+			is.close();
+		}
+	}
+
+
+	/**
+	 * Writes the scenarios of each feature to its own file.
+	 *
+	 * @param first the index of the first of the features in the result.
+	 * @return the position of each scenario as (feature index << 32 | scenario index).
+	 */
+	private static Map<ScenarioResult, Long> writeScenarios(File directory, List<FeatureResult> features, int first)
+	      throws IOException {
+		Map<ScenarioResult, Long> references = new IdentityHashMap<ScenarioResult, Long>();
+		for (int i = 0; i < features.size(); i++) {
+			// make sure the scenarios are read before the file they may come from is overwritten.
+			Collection<ScenarioResult> scenarios = features.get(i).getChildren();
+			OutputStream os = new FileOutputStream(getScenarioFile(directory, first + i));
+			try {
+				Encoder out = new Encoder(os);
+				out.writeHeader();
+				out.writeVarInt(scenarios.size());
+				int j = 0;
+				for (ScenarioResult scenario : scenarios) {
+					out.writeScenario(scenario);
+					references.put(scenario, Long.valueOf(((long) (first + i) << 32) | j++));
+				}
+				out.flush();
+			}
+			finally {
+				os.close();
+			}
+		}
+		return references;
+	}
+
+
+	/**
+	 * Writes a summary, or a segment starting at the given feature.
+	 *
+	 * @param first the index of the first feature of a segment, or -1 for a summary.
+	 */
+	private static void writeSummary(File file, Summary summary, int first) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			Encoder out = new Encoder(os);
+			out.writeHeader();
+			if (first >= 0) {
+				out.writeVarInt(first);
+			}
+			out.writeVarInt(summary.features.size());
+			for (FeatureResult feature : summary.features) {
+				out.writeFeature(feature);
+				out.writeCounts(feature);
+			}
+			out.writeVarInt(summary.tags.size());
+			for (Map.Entry<String, TagSummary> entry : summary.tags.entrySet()) {
+				TagSummary tagSummary = entry.getValue();
+				out.writeString(entry.getKey());
+				out.writeCounts(tagSummary.passCount, tagSummary.failCount, tagSummary.skipCount, tagSummary.duration);
+				out.writeReferences(tagSummary.references);
+			}
+			out.writeReferences(summary.failed);
+			out.flush();
+		}
+		finally {
+			os.close();
+		}
+	}
+
+
+	/**
+	 * Reads the summary from the given directory followed by the segments that have been appended to it.
+	 *
+	 * @param strings the table to share the strings that are read through.
+	 */
+	private static Summary readSummary(File directory, StringTable strings) throws IOException {
+		for (boolean retry = true;; retry = false) {
+			Summary summary = new Summary(strings);
+			readSummary(directory, new File(directory, SUMMARY_FILE), summary, false);
+			try {
+				File segment;
+				while ((segment = getSegmentFile(directory, summary.features.size())).exists()) {
+					readSummary(directory, segment, summary, true);
+					summary.segments.add(segment);
+				}
+				return summary;
+			}
+			catch (FileNotFoundException ex) {
+				// compacted whilst it was being read, so the summary now holds the segments.
+				if (!retry) {
+					throw ex;
+				}
+			}
+		}
+	}
+
+
+	private static void readSummary(File directory, File file, Summary summary, boolean segment) throws IOException {
+		InputStream is = new FileInputStream(file);
+		try {
+			Decoder in = new Decoder(is, summary.strings);
+			in.readHeader();
+			if (segment && in.readVarInt() != summary.features.size()) {
+				throw new IOException("Corrupt Cucumber result segment: " + file);
+			}
+			for (int i = in.readVarInt(); i > 0; i--) {
+				FeatureResult feature = in.readFeature();
+				int passCount = in.readVarInt();
+				int failCount = in.readVarInt();
+				int skipCount = in.readVarInt();
+				feature.restoreTally(getScenarioFile(directory, summary.features.size()), passCount, failCount,
+				                     skipCount, in.readFloat());
+				summary.features.add(feature);
+			}
+			for (int i = in.readVarInt(); i > 0; i--) {
+				TagSummary tagSummary = summary.getTag(in.readString());
+				int passCount = in.readVarInt();
+				int failCount = in.readVarInt();
+				int skipCount = in.readVarInt();
+				tagSummary.add(passCount, failCount, skipCount, in.readFloat());
+				in.readReferences(summary.features.size(), tagSummary.references);
+			}
+			in.readReferences(summary.features.size(), summary.failed);
+		}
+		finally {
+			is.close();
+		}
+	}
+
+
+	private static File getScenarioFile(File directory, int featureIndex) {
+		return new File(directory, "feature-" + featureIndex + ".bin");
+	}
+
+
+	private static File getSegmentFile(File directory, int firstFeatureIndex) {
+		return new File(directory, "segment-" + firstFeatureIndex + ".bin");
+	}
+
+
+	private static List<Long> getReferences(Collection<ScenarioResult> scenarios,
+	                                        Map<ScenarioResult, Long> references) {
+		List<Long> list = new ArrayList<Long>(scenarios.size());
+		for (ScenarioResult scenario : scenarios) {
+			list.add(references.get(scenario));
+		}
+		return list;
+	}
+
+
+	/**
+	 * The features and tags of a result with the positions of their scenarios, as held in a summary and its
+	 * segments.
+	 */
+	private static final class Summary {
+
+		final List<FeatureResult> features = new ArrayList<FeatureResult>();
+		final Map<String, TagSummary> tags = new LinkedHashMap<String, TagSummary>();
+		final List<Long> failed = new ArrayList<Long>();
+		/** the segments that were read after the summary. */
+		final List<File> segments = new ArrayList<File>();
+		final StringTable strings;
+
+
+		Summary(StringTable strings) {
+			this.strings = strings;
+		}
+
+
+		TagSummary getTag(String tagName) {
+			TagSummary tagSummary = tags.get(tagName);
+			if (tagSummary == null) {
+				tagSummary = new TagSummary();
+				tags.put(tagName, tagSummary);
+			}
+			return tagSummary;
+		}
+	}
+
+	private static final class TagSummary {
+
+		int passCount;
+		int failCount;
+		int skipCount;
+		float duration;
+		// in order so that the features are loaded in turn
+		final Set<Long> references = new TreeSet<Long>();
+
+
+		void add(TestResult result) {
+			add(result.getPassCount(), result.getFailCount(), result.getSkipCount(), result.getDuration());
+		}
+
+
+		void add(int passCount, int failCount, int skipCount, float duration) {
+			this.passCount += passCount;
+			this.failCount += failCount;
+			this.skipCount += skipCount;
+			this.duration += duration;
+		}
+	}
+
+	/**
+	 * A view of scenarios that were written to a summary by their position, which loads the scenarios of the
+	 * features when it is first used and leaves out those that could not be read.
+	 */
+	private static final class ScenarioReferences extends AbstractList<ScenarioResult> {
+
+		private final List<FeatureResult> features;
+		private final long[] references;
+		/** The scenarios, once they are needed, leaving out those of features whose scenarios could not be read. */
+		private List<ScenarioResult> scenarios;
+
+
+		ScenarioReferences(List<FeatureResult> features, Collection<Long> references) {
+			this.features = features;
+			this.references = new long[references.size()];
+			int i = 0;
+			for (Long reference : references) {
+				this.references[i++] = reference.longValue();
+			}
+		}
+
+
+		@Override
+		public ScenarioResult get(int index) {
+			return getScenarios().get(index);
+		}
+
+
+		@Override
+		public int size() {
+			return getScenarios().size();
+		}
+
+
+		private synchronized List<ScenarioResult> getScenarios() {
+			if (scenarios == null) {
+				List<ScenarioResult> list = new ArrayList<ScenarioResult>(references.length);
+				for (long reference : references) {
+					ScenarioResult scenario = features.get((int) (reference >>> 32)).getScenarioResult((int) reference);
+					if (scenario != null) {
+						list.add(scenario);
+					}
+				}
+				scenarios = list;
+			}
+			return scenarios;
+		}
+	}
+
+
+
+	/** Writes the model to a buffered stream. */
+	private static final class Encoder {
+
+		private final OutputStream os;
+		private final byte[] buf = new byte[BUFFER_SIZE];
+		private int pos;
+		private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+
+		Encoder(OutputStream os) {
+			this.os = os;
+		}
+
+
+		void writeHeader() throws IOException {
+			writeInt(MAGIC);
+			writeVarInt(VERSION);
+		}
+
+
+		void writeFeature(FeatureResult featureResult) throws IOException {
+			writeString(featureResult.getURI());
+			writeStatement(featureResult.getStatement());
+		}
+
+
+		/** Writes the state of a result that has no children, which is either passed, failed or skipped. */
+		private void writeTally(TestResult result) throws IOException {
+			writeBoolean(result.getFailCount() != 0);
+			writeBoolean(result.getSkipCount() != 0);
+			writeInt(Float.floatToIntBits(result.getDuration()));
+		}
+
+
+		/** Writes the positions of scenarios in the result. */
+		void writeReferences(Collection<Long> references) throws IOException {
+			writeVarInt(references.size());
+			for (Long reference : references) {
+				writeVarLong(reference.longValue());
+			}
+		}
+
+
+		void writeCounts(TestResult result) throws IOException {
+			writeCounts(result.getPassCount(), result.getFailCount(), result.getSkipCount(), result.getDuration());
+		}
+
+
+		void writeCounts(int passCount, int failCount, int skipCount, float duration) throws IOException {
+			writeVarInt(passCount);
+			writeVarInt(failCount);
+			writeVarInt(skipCount);
+			writeInt(Float.floatToIntBits(duration));
+		}
+
+
+		void writeScenario(ScenarioResult scenarioResult) throws IOException {
+			writeStatement(scenarioResult.getStatement());
+			writeVarInt(scenarioResult.getRecordedFailedSince());
+			Status status = scenarioResult.getRecordedStatus();
+			writeString(status == null ? null : status.name());
+			writeString(scenarioResult.getSafeName());
+			writeTally(scenarioResult);
+
+			BackgroundResult backgroundResult = scenarioResult.getBackgroundResult();
+			if (backgroundResult == null) {
+				writeBoolean(false);
+			}
+			else {
+				writeBoolean(true);
+				writeStatement(backgroundResult.getStatement());
+				writeTally(backgroundResult);
+				writeSteps(backgroundResult.getStepResults());
+			}
+			writeHooks(scenarioResult.getBeforeResults());
+			writeSteps(scenarioResult.getStepResults());
+			writeHooks(scenarioResult.getAfterResults());
+
+			List<EmbeddedItem> items = scenarioResult.getEmbeddedItems();
+			writeVarInt(items.size());
+			for (EmbeddedItem item : items) {
+				writeString(item.getMimetype());
+				writeString(item.getFilename());
+				writeString(item.getHash());
+			}
+		}
+
+
+		private void writeSteps(Collection<StepResult> steps) throws IOException {
+			writeVarInt(steps.size());
+			for (StepResult stepResult : steps) {
+				writeStatement(stepResult.getStatement());
+				writeString(stepResult.getLocation());
+				writeResult(stepResult.getResultStatus(), stepResult.getDurationNanos(), stepResult.getErrorMessage());
+			}
+		}
+
+
+		private void writeHooks(List<BeforeAfterResult> hooks) throws IOException {
+			writeVarInt(hooks.size());
+			for (BeforeAfterResult hook : hooks) {
+				writeString(hook.getLocation());
+				writeResult(hook.getResultStatus(), hook.getDurationNanos(), hook.getErrorMessage());
+			}
+		}
+
+
+		private void writeResult(ResultStatus status, long duration, String errorMessage) throws IOException {
+			writeString(status.getStatus());
+			writeVarLong(zigZag(duration));
+			writeString(errorMessage);
+		}
+
+
+		private void writeStatement(Statement statement) throws IOException {
+			writeLines(statement.getComments());
+			writeLines(statement.getTags());
+			writeString(statement.getKeyword());
+			writeString(statement.getName());
+			writeString(statement.getDescription());
+			writeVarInt(statement.getLine());
+			writeString(statement.getId());
+			List<Statement.Row> rows = statement.getRows();
+			if (rows == null) {
+				writeVarInt(0);
+			}
+			else {
+				writeVarInt(rows.size() + 1);
+				for (Statement.Row row : rows) {
+					writeLines(row.getComments());
+					List<String> cells = row.getCells();
+					writeVarInt(cells.size());
+					for (String cell : cells) {
+						writeString(cell);
+					}
+					writeVarInt(row.getLine());
+				}
+			}
+		}
+
+
+		/** Writes comments or tags along with their lines. */
+		private void writeLines(List<Statement.Line> lines) throws IOException {
+			writeVarInt(lines.size());
+			for (Statement.Line line : lines) {
+				writeString(line.getText());
+				writeVarInt(line.getLine());
+			}
+		}
+
+
+		/**
+		 * Writes a reference to the string table, <code>0</code> for <code>null</code>. A string that has not been
+		 * seen before is given the next index and its UTF-8 bytes follow the reference.
+		 */
+		void writeString(String s) throws IOException {
+			if (s == null) {
+				writeVarInt(0);
+				return;
+			}
+			Integer index = strings.get(s);
+			if (index != null) {
+				writeVarInt(index.intValue());
+				return;
+			}
+			index = Integer.valueOf(strings.size() + 1);
+			strings.put(s, index);
+			writeVarInt(index.intValue());
+			byte[] bytes = s.getBytes(UTF8);
+			writeVarInt(bytes.length);
+			writeBytes(bytes);
+		}
+
+
+		private void writeBoolean(boolean b) throws IOException {
+			writeByte(b ? 1 : 0);
+		}
+
+
+		void writeInt(int i) throws IOException {
+			writeByte(i >>> 24);
+			writeByte(i >>> 16);
+			writeByte(i >>> 8);
+			writeByte(i);
+		}
+
+
+		void writeVarInt(int i) throws IOException {
+			writeVarLong(i & 0xFFFFFFFFL);
+		}
+
+
+		void writeVarLong(long l) throws IOException {
+			while ((l & ~0x7FL) != 0) {
+				writeByte((int) ((l & 0x7F) | 0x80));
+				l >>>= 7;
+			}
+			writeByte((int) l);
+		}
+
+
+		private void writeByte(int b) throws IOException {
+			if (pos == buf.length) {
+				flushBuffer();
+			}
+			buf[pos++] = (byte) b;
+		}
+
+
+		private void writeBytes(byte[] bytes) throws IOException {
+			if (bytes.length > buf.length - pos) {
+				flushBuffer();
+				if (bytes.length > buf.length) {
+					os.write(bytes);
+					return;
+				}
+			}
+			System.arraycopy(bytes, 0, buf, pos, bytes.length);
+			pos += bytes.length;
+		}
+
+
+		private void flushBuffer() throws IOException {
+			os.write(buf, 0, pos);
+			pos = 0;
+		}
+
+
+		void flush() throws IOException {
+			flushBuffer();
+			os.flush();
+		}
+
+
+		private static long zigZag(long l) {
+			return (l << 1) ^ (l >> 63);
+		}
+	}
+
+	/** Reads the model from a buffered stream. */
+	private static final class Decoder {
+
+		private final InputStream is;
+		private final byte[] buf = new byte[BUFFER_SIZE];
+		private int pos;
+		private int limit;
+		private final List<String> strings = new ArrayList<String>();
+		/** shares the strings with those read from the other files of the result. */
+		private final StringTable table;
+
+		Decoder(InputStream is, StringTable table) {
+			this.is = is;
+			this.table = table;
+		}
+
+
+		void readHeader() throws IOException {
+			int magic = readInt();
+			if (magic != MAGIC) {
+				throw new IOException("Not a Cucumber result file (bad magic number " + Integer.toHexString(magic)
+				                      + ")");
+			}
+			int version = readVarInt();
+			if (version > VERSION) {
+				throw new IOException("Cucumber result file version " + version
+				                      + " was written by a newer version of the plugin, expected " + VERSION);
+			}
+			if (version != VERSION) {
+				throw new IOException("Unsupported Cucumber result file version " + version + ", expected " + VERSION);
+			}
+		}
+
+
+		FeatureResult readFeature() throws IOException {
+			String uri = readString();
+			return new FeatureResult(uri, readStatement());
+		}
+
+
+		/** Reads the positions of scenarios in a result with the given number of features. */
+		void readReferences(int featureCount, Collection<Long> references) throws IOException {
+			for (int i = readVarInt(); i > 0; i--) {
+				long reference = readVarLong();
+				if ((reference >>> 32) >= featureCount) {
+					throw new IOException("Corrupt Cucumber result summary: reference to feature " + (reference >>> 32)
+					                      + " of " + featureCount);
+				}
+				references.add(Long.valueOf(reference));
+			}
+		}
+
+
+		ScenarioResult readScenario() throws IOException {
+			Statement statement = readStatement();
+			int failedSince = readVarInt();
+			// scenarios whose status was not resolved when archived work it out when shown
+			String status = readString();
+			String safeName = readString();
+			boolean failed = readBoolean();
+			boolean skipped = readBoolean();
+			float duration = readFloat();
+
+			BackgroundResult backgroundResult = null;
+			if (readBoolean()) {
+				backgroundResult = new BackgroundResult(readStatement());
+				boolean bgFailed = readBoolean();
+				boolean bgSkipped = readBoolean();
+				backgroundResult.restoreTally(bgFailed, bgSkipped, readFloat());
+				for (int i = readVarInt(); i > 0; i--) {
+					backgroundResult.addStepResult(readStep());
+				}
+			}
+			ScenarioResult scenarioResult = new ScenarioResult(statement, backgroundResult);
+			scenarioResult.setRecordedFailedSince(failedSince);
+			if (status != null) {
+				try {
+					scenarioResult.setRecordedStatus(Status.valueOf(status));
+				}
+				catch (IllegalArgumentException ex) {
+					throw new IOException("Corrupt Cucumber result file: unknown scenario status " + status);
+				}
+			}
+			scenarioResult.restoreTally(safeName, failed, skipped, duration);
+			for (int i = readVarInt(); i > 0; i--) {
+				scenarioResult.addBeforeResult(readHook());
+			}
+			for (int i = readVarInt(); i > 0; i--) {
+				scenarioResult.addStepResult(readStep());
+			}
+			for (int i = readVarInt(); i > 0; i--) {
+				scenarioResult.addAfterResult(readHook());
+			}
+			for (int i = readVarInt(); i > 0; i--) {
+				String mimetype = readString();
+				String filename = readString();
+				String hash = readString();
+				scenarioResult.addEmbeddedItem(new EmbeddedItem(mimetype, filename, hash));
+			}
+			return scenarioResult;
+		}
+
+
+		private StepResult readStep() throws IOException {
+			Statement statement = readStatement();
+			String location = readString();
+			ResultStatus status = ResultStatus.fromString(readString());
+			long duration = unZigZag(readVarLong());
+			String errorMessage = readString();
+			return new StepResult(statement, location, status, errorMessage, duration);
+		}
+
+
+		private BeforeAfterResult readHook() throws IOException {
+			String location = readString();
+			ResultStatus status = ResultStatus.fromString(readString());
+			long duration = unZigZag(readVarLong());
+			String errorMessage = readString();
+			return new BeforeAfterResult(location, status, errorMessage, duration);
+		}
+
+
+		private Statement readStatement() throws IOException {
+			List<Statement.Line> comments = readLines();
+			List<Statement.Line> tags = readLines();
+			String keyword = readString();
+			String name = readString();
+			String description = readString();
+			int line = readVarInt();
+			String id = readString();
+			List<Statement.Row> rows = null;
+			int rowCount = readVarInt();
+			if (rowCount > 0) {
+				rows = new ArrayList<Statement.Row>(rowCount - 1);
+				for (int i = rowCount - 1; i > 0; i--) {
+					List<Statement.Line> rowComments = readLines();
+					int cellCount = readVarInt();
+					List<String> cells = new ArrayList<String>(cellCount);
+					for (int j = 0; j < cellCount; j++) {
+						cells.add(readString());
+					}
+					rows.add(new Statement.Row(rowComments, cells, readVarInt()));
+				}
+			}
+			return new Statement(comments, tags, keyword, name, description, line, id, rows);
+		}
+
+
+		/** Reads comments or tags along with their lines. */
+		private List<Statement.Line> readLines() throws IOException {
+			int count = readVarInt();
+			if (count == 0) {
+				return Collections.emptyList();
+			}
+			List<Statement.Line> lines = new ArrayList<Statement.Line>(count);
+			for (int i = 0; i < count; i++) {
+				String text = readString();
+				lines.add(new Statement.Line(text, readVarInt()));
+			}
+			return lines;
+		}
+
+
+		String readString() throws IOException {
+			int index = readVarInt();
+			if (index == 0) {
+				return null;
+			}
+			if (index <= strings.size()) {
+				return strings.get(index - 1);
+			}
+			if (index != strings.size() + 1) {
+				throw new IOException("Corrupt Cucumber result file: string " + index + " referenced before it was "
+				                      + "defined");
+			}
+			int length = readVarInt();
+			String s;
+			if (length <= buf.length) {
+				ensure(length);
+				s = new String(buf, pos, length, UTF8);
+				pos += length;
+			}
+			else {
+				byte[] bytes = new byte[length];
+				int read = limit - pos;
+				System.arraycopy(buf, pos, bytes, 0, read);
+				pos = limit;
+				while (read < length) {
+					int r = is.read(bytes, read, length - read);
+					if (r < 0) {
+						throw new EOFException("Truncated Cucumber result file");
+					}
+					read += r;
+				}
+				s = new String(bytes, UTF8);
+			}
+			s = table.get(s);
+			strings.add(s);
+			return s;
+		}
+
+
+		private boolean readBoolean() throws IOException {
+			return readByte() != 0;
+		}
+
+
+		int readInt() throws IOException {
+			return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		}
+
+
+		float readFloat() throws IOException {
+			return Float.intBitsToFloat(readInt());
+		}
+
+
+		int readVarInt() throws IOException {
+			long l = readVarLong();
+			if (l > Integer.MAX_VALUE) {
+				throw new IOException("Corrupt Cucumber result file: count " + l + " is out of range");
+			}
+			return (int) l;
+		}
+
+
+		long readVarLong() throws IOException {
+			long l = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = readByte();
+				l |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return l;
+				}
+			}
+			throw new IOException("Corrupt Cucumber result file: malformed variable length integer");
+		}
+
+
+		private int readByte() throws IOException {
+			if (pos == limit) {
+				ensure(1);
+			}
+			return buf[pos++] & 0xFF;
+		}
+
+
+		/** Makes sure that at least <code>count</code> bytes are available in the buffer. */
+		private void ensure(int count) throws IOException {
+			if (limit - pos >= count) {
+				return;
+			}
+			System.arraycopy(buf, pos, buf, 0, limit - pos);
+			limit -= pos;
+			pos = 0;
+			while (limit < count) {
+				int r = is.read(buf, limit, buf.length - limit);
+				if (r < 0) {
+					throw new EOFException("Truncated Cucumber result file");
+				}
+				limit += r;
+			}
+		}
+
+
+		private static long unZigZag(long l) {
+			return (l >>> 1) ^ -(l & 1);
+		}
+	}
+}
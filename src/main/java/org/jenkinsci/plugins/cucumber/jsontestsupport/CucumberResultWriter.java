@@ -0,0 +1,280 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.Extension;
+import hudson.init.Terminator;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes {@link CucumberTestResult}s to disk in the background so that publishing a large result does not hold up
+ * the build. A result is held in memory until it has been written, and if a newer result for the same build is set
+ * before the write starts only the newer one is written.
+ * <p>
+ * Results are written one at a time, and once
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberResultWriter.queueSize</code> (default 16) writes
+ * are waiting the build thread writes its own result. Builds wait for their result to be written when they
+ * complete, and Jenkins waits for all of the results to be written when it shuts down.
+ *
+ * @author James Nord
+ */
+public final class CucumberResultWriter {
+
+	private static final Logger LOGGER = Logger.getLogger(CucumberResultWriter.class.getName());
+
+	private static final CucumberResultWriter INSTANCE =
+	      new CucumberResultWriter(Integer.getInteger(CucumberResultWriter.class.getName() + ".queueSize", 16)
+	                                      .intValue());
+
+	private final ThreadPoolExecutor executor;
+
+	/** guarded by this, the latest write of each build that has not completed. */
+	private final Map<String, Write> writes = new HashMap<String, Write>();
+
+
+	CucumberResultWriter(int queueSize) {
+		executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+		                                  new NamingThreadFactory(new DaemonThreadFactory(), "Cucumber result writer"),
+		                                  new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+
+	static CucumberResultWriter getInstance() {
+		return INSTANCE;
+	}
+
+
+	/**
+	 * Schedules a result to be written.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @param result the result to write.
+	 * @param persister writes the result.
+	 */
+	void write(String key, CucumberTestResult result, Persister persister) {
+		Write write;
+		synchronized (this) {
+			Write previous = writes.get(key);
+			if (previous != null && previous.result != null) {
+				// not started yet so it can write this result instead.
+				previous.result = result;
+				previous.pending = result;
+				return;
+			}
+			write = new Write(key, result, persister, previous);
+			writes.put(key, write);
+		}
+		executor.execute(write);
+	}
+
+
+	/**
+	 * Gets the result of a build that has not yet been completely written.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @return the result or <code>null</code> if the build has no result waiting to be written.
+	 */
+	synchronized CucumberTestResult getPending(String key) {
+		Write write = writes.get(key);
+		return write == null ? null : write.pending;
+	}
+
+
+	/**
+	 * Waits for the result of a build to be written.
+	 *
+	 * @param key the {@link Run#getExternalizableId() id} of the build.
+	 * @return the reason the latest result could not be written, or <code>null</code> if it was written or the build
+	 *         had nothing to write.
+	 */
+	IOException flush(String key) throws InterruptedException {
+		Write write;
+		synchronized (this) {
+			write = writes.get(key);
+		}
+		if (write == null) {
+			return null;
+		}
+		write.done.await();
+		return write.failure;
+	}
+
+
+	/**
+	 * Waits for every result that is waiting to be written, including those that are scheduled in the meantime.
+	 */
+	void flushAll() throws InterruptedException {
+		while (true) {
+			List<Write> waiting;
+			synchronized (this) {
+				if (writes.isEmpty()) {
+					return;
+				}
+				waiting = new ArrayList<Write>(writes.values());
+			}
+			for (Write write : waiting) {
+				write.done.await();
+			}
+		}
+	}
+
+
+	/**
+	 * Writes the results that are still waiting when Jenkins shuts down, as the writer's thread is a daemon that
+	 * would otherwise be stopped with them unwritten.
+	 */
+	@Terminator
+	public static void flushOnShutdown() throws InterruptedException {
+		int count;
+		synchronized (INSTANCE) {
+			count = INSTANCE.writes.size();
+		}
+		if (count > 0) {
+			LOGGER.log(Level.INFO, "Waiting for {0} Cucumber test results to be written", Integer.valueOf(count));
+		}
+		INSTANCE.flushAll();
+	}
+
+
+	/**
+	 * Persists a result.
+	 */
+	interface Persister {
+
+		void persist(CucumberTestResult result) throws IOException;
+	}
+
+	private final class Write implements Runnable {
+
+		final String key;
+		final Persister persister;
+		final CountDownLatch done = new CountDownLatch(1);
+
+		/** guarded by the writer, the result to write or <code>null</code> once the write has started. */
+		CucumberTestResult result;
+
+		/** guarded by the writer, the result being written. */
+		CucumberTestResult pending;
+
+		/** the write this one follows, which must complete first so they are not written out of order. */
+		private Write previous;
+
+		volatile IOException failure;
+
+
+		Write(String key, CucumberTestResult result, Persister persister, Write previous) {
+			this.key = key;
+			this.result = result;
+			this.pending = result;
+			this.persister = persister;
+			this.previous = previous;
+		}
+
+
+		public void run() {
+			boolean interrupted = false;
+			try {
+				if (previous != null) {
+					while (true) {
+						try {
+							previous.done.await();
+							break;
+						} catch (InterruptedException e) {
+							interrupted = true;
+						}
+					}
+					previous = null;
+				}
+				CucumberTestResult r;
+				synchronized (CucumberResultWriter.this) {
+					r = result;
+					result = null;
+				}
+				persister.persist(r);
+			} catch (IOException e) {
+				failure = e;
+				LOGGER.log(Level.WARNING, "Failed to save the Cucumber test result of " + key, e);
+			} catch (RuntimeException e) {
+				failure = new IOException(e);
+				LOGGER.log(Level.WARNING, "Failed to save the Cucumber test result of " + key, e);
+			} finally {
+				synchronized (CucumberResultWriter.this) {
+					if (writes.get(key) == this) {
+						writes.remove(key);
+					}
+				}
+				done.countDown();
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes sure the result of a build has been written before the build is complete, and then compacts it.
+	 */
+	@Extension
+	public static final class RunCompletedListener extends RunListener<Run<?, ?>> {
+
+		@Override
+		public void onCompleted(Run<?, ?> run, TaskListener listener) {
+			try {
+				IOException failure = INSTANCE.flush(run.getExternalizableId());
+				if (failure != null) {
+					failure.printStackTrace(listener.fatalError("Failed to save the Cucumber test result."));
+					return;
+				}
+				CucumberTestResultAction action = run.getAction(CucumberTestResultAction.class);
+				if (action != null) {
+					action.compact();
+				}
+			} catch (IOException e) {
+				// the result is still complete as it is
+				LOGGER.log(Level.WARNING, "Failed to compact the Cucumber test result of " + run, e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				listener.error("Interrupted whilst saving the Cucumber test result.");
+				return;
+			}
+		}
+	}
+}
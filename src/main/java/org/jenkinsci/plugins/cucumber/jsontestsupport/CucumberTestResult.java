@@ -23,7 +23,7 @@
  */
 package org.jenkinsci.plugins.cucumber.jsontestsupport;
 
-import gherkin.formatter.model.Tag;
+import hudson.init.Terminator;
 import hudson.model.Run;
 import hudson.tasks.test.MetaTabulatedResult;
 import hudson.tasks.test.TestObject;
@@ -31,10 +31,19 @@ import hudson.tasks.test.TestResult;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
@@ -51,6 +60,14 @@ public class CucumberTestResult extends MetaTabulatedResult {
 	
 	private static final long serialVersionUID = 3499017799686036745L;
 
+	/**
+	 * The number of scenarios from which the features of a result are tallied in parallel, set with the
+	 * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberTestResult.parallelTallyThreshold</code> system
+	 * property.
+	 */
+	private static final int PARALLEL_TALLY_THRESHOLD =
+	      Integer.getInteger(CucumberTestResult.class.getName() + ".parallelTallyThreshold", 10000).intValue();
+
 	private List<FeatureResult> featureResults = new ArrayList<FeatureResult>();
 
 	/**
@@ -72,6 +89,24 @@ public class CucumberTestResult extends MetaTabulatedResult {
 	private transient Map<String, TagResult> tagMap =  new HashMap<String, TagResult>();
 
 	private transient Run<?, ?> owner;
+
+	/** Whether this stands in for a result that could not be read. */
+	private transient boolean broken;
+
+	/** Makes the safe names of the features unique, guarded by this. */
+	private transient SafeNames featureNames;
+
+	/** The number of features that have been named, guarded by this. */
+	private transient int namedFeatures;
+
+	/**
+	 * The latest published of the results that were merged from one another, which is shared between them. A feature
+	 * or tag that they share belongs to the latest of them that has it, so they are never changed by a merge.
+	 */
+	private transient volatile AtomicReference<CucumberTestResult> published;
+
+	/** Shares the strings read back from disk with those of the scenarios that are read later. */
+	private transient StringTable strings;
 	
 	/* Recomputed by a call to {@link CucumberTestResult#tally()} */
 	private transient int passCount;
@@ -111,12 +146,12 @@ public class CucumberTestResult extends MetaTabulatedResult {
    
 	@Override
 	public Collection<FeatureResult> getChildren() {
-		return featureResults;
+		return Collections.unmodifiableList(featureResults);
 	}
 
 	@Exported(inline=true, visibility=9)
 	public Collection<FeatureResult> getFeatures() {
-		return featureResults;
+		return Collections.unmodifiableList(featureResults);
 	}
 
 	@Override
@@ -124,12 +159,39 @@ public class CucumberTestResult extends MetaTabulatedResult {
 		return !featureResults.isEmpty();
 	}
 
+	/**
+	 * Gets the feature at the given position in this result.
+	 */
+	FeatureResult getFeatureResult(int index) {
+		return featureResults.get(index);
+	}
+
 
 	@Override
 	public Collection<ScenarioResult> getFailedTests() {
 		return failedScenarioResults;
 	}
 
+
+	/**
+	 * Creates an empty result that stands in for one that could not be read.
+	 */
+	static CucumberTestResult broken() {
+		CucumberTestResult result = new CucumberTestResult();
+		result.broken = true;
+		result.tally();
+		return result;
+	}
+
+
+	/**
+	 * Whether this is an empty result standing in for one that could not be read, which anything that would change
+	 * or learn from the result should skip.
+	 */
+	public boolean isBroken() {
+		return broken;
+	}
+
 	
 	@Override
 	public Run<?, ?> getRun() {
@@ -228,73 +290,249 @@ public class CucumberTestResult extends MetaTabulatedResult {
 
 	@Override
 	public void tally() {
-		if (failedScenarioResults == null) {
-			failedScenarioResults = new ArrayList<ScenarioResult>();
-		}
-		else {
-			failedScenarioResults.clear();
-		}
-		if (tagMap == null) {
-			tagMap =  new HashMap<String, TagResult>();
-		}
-		else {
-			tagMap.clear();
-		}
-		
+		tally(PARALLEL_TALLY_THRESHOLD);
+	}
+
+	/**
+	 * Recomputes the totals of this result, tallying the features in parallel if there are at least the given
+	 * number of scenarios.
+	 */
+	void tally(int parallelThreshold) {
+		// may have been restored as a view of the scenarios in a summary
+		failedScenarioResults = new ArrayList<ScenarioResult>();
+		tagMap = new HashMap<String, TagResult>();
+		featuresById = new TreeMap<String, FeatureResult>();
 		passCount = 0;
 		failCount = 0;
 		skipCount = 0;
 		duration = 0.0f;
-		
-		if (featuresById == null) {
-			featuresById = new TreeMap<String, FeatureResult>();
+
+		int scenarios = 0;
+		for (FeatureResult fr : featureResults) {
+			scenarios += fr.getChildren().size();
 		}
-		else {
-			featuresById.clear();
+		Tally tally = null;
+		if (featureResults.size() > 1 && scenarios >= parallelThreshold) {
+			// the features are named before their scenarios are named from them
+			nameFeatures();
+			tally = TallyTask.tally(featureResults);
+		}
+		if (tally == null) {
+			tally = new Tally();
+			for (FeatureResult fr : featureResults) {
+				fr.tally();
+				tally.add(fr);
+			}
 		}
-		
+		// summed in order so the duration does not depend on how the features were split up
 		for (FeatureResult fr : featureResults) {
-			fr.tally();
 			passCount += fr.getPassCount();
 			failCount += fr.getFailCount();
 			skipCount += fr.getSkipCount();
 			duration += fr.getDuration();
-			failedScenarioResults.addAll(fr.getFailedTests());
+		}
+		index(featureResults, tally, null);
+	}
+
+	/**
+	 * Adds tallied features to the failed scenarios, the features by id and the tags. This takes time proportional
+	 * to the size of the features, not of the result.
+	 * 
+	 * @param tally the failed and tagged scenarios of the features.
+	 * @param shared the tags that are shared with another result and so must be copied before they are changed, or
+	 *            <code>null</code> if all of the tags belong to this result.
+	 */
+	private void index(Collection<FeatureResult> features, Tally tally, Set<TagResult> shared) {
+		failedScenarioResults.addAll(tally.failed);
+		for (FeatureResult fr : features) {
 			featuresById.put(fr.getSafeName(), fr);
-			for (ScenarioResult scenarioResult : fr.getChildren()) {
-				for (Tag tag : scenarioResult.getParent().getFeature().getTags()) {
-					TagResult tr = tagMap.get(tag.getName());
-					if (tr == null) {
-						tr = new TagResult(tag.getName());
-						tagMap.put(tag.getName(), tr);
-					}
-					tr.addScenarioResult(scenarioResult);
-				}
-				if (scenarioResult.getScenario().getTags().isEmpty()) {
-					TagResult tr = tagMap.get(UNTAGGED_TEST_TAG);
-					if (tr == null) {
-						tr = new TagResult(UNTAGGED_TEST_TAG);
-						tagMap.put(UNTAGGED_TEST_TAG, tr);
-					}
-					tr.addScenarioResult(scenarioResult);
-				}
-				else {
-					for (Tag tag : scenarioResult.getScenario().getTags()) {
-						TagResult tr = tagMap.get(tag.getName());
-						if (tr == null) {
-							tr = new TagResult(tag.getName());
-							tagMap.put(tag.getName(), tr);
-						}
-						tr.addScenarioResult(scenarioResult);
-					}
+		}
+		for (Map.Entry<String, List<ScenarioResult>> entry : tally.tagged.entrySet()) {
+			TagResult tr = tagMap.get(entry.getKey());
+			if (tr == null || (shared != null && shared.contains(tr))) {
+				tr = tr == null ? new TagResult(entry.getKey()) : tr.copy();
+				tr.setParent(this);
+				tr.setOwner(owner);
+				tagMap.put(entry.getKey(), tr);
+			}
+			tr.addScenarioResults(entry.getValue());
+		}
+	}
+
+	/**
+	 * Works out the status of each scenario against the builds before this one, so it is kept with the result.
+	 * 
+	 * @see ScenarioResult#resolveStatus()
+	 */
+	void resolveStatus() {
+		resolveStatus(featureResults);
+	}
+
+	/**
+	 * Works out the status of the scenarios of some of the features of this result.
+	 * 
+	 * @see #resolveStatus()
+	 */
+	void resolveStatus(Collection<FeatureResult> features) {
+		for (FeatureResult fr : features) {
+			for (ScenarioResult sr : fr.getChildren()) {
+				sr.resolveStatus();
+			}
+		}
+	}
+
+	/**
+	 * Names the features that have not been named yet, in order.
+	 */
+	synchronized void nameFeatures() {
+		if (featureNames == null) {
+			featureNames = new SafeNames();
+		}
+		for (; namedFeatures < featureResults.size(); namedFeatures++) {
+			featureResults.get(namedFeatures).assignSafeName(featureNames);
+		}
+	}
+
+	/**
+	 * The table through which the strings of this result are shared.
+	 */
+	synchronized StringTable getStringTable() {
+		if (strings == null) {
+			strings = new StringTable();
+		}
+		return strings;
+	}
+
+	/**
+	 * Creates a new result with the features of this result followed by those of another, with the state calculated
+	 * by {@link #tally()} updated without tallying the features that were already in this result. This result and
+	 * its features and tags are not changed, so it can still be read whilst the new one is created, and the features
+	 * and tags that are not changed are shared. They belong to the new result once it is {@link #publish()
+	 * published}, the features of the other result are moved to the new result.
+	 * 
+	 * @param other a {@link #tally() tallied} result whose features are added.
+	 * @return the merged result.
+	 */
+	CucumberTestResult merge(CucumberTestResult other) {
+		CucumberTestResult merged = new CucumberTestResult();
+		merged.owner = owner;
+		merged.strings = strings;
+		merged.featureResults.addAll(featureResults);
+		merged.published = getPublished();
+		synchronized (this) {
+			nameFeatures();
+			merged.featureNames = new SafeNames(featureNames);
+			merged.namedFeatures = namedFeatures;
+		}
+		merged.passCount = passCount;
+		merged.failCount = failCount;
+		merged.skipCount = skipCount;
+		merged.duration = duration;
+		merged.featuresById.putAll(featuresById);
+		merged.failedScenarioResults.addAll(failedScenarioResults);
+		merged.tagMap.putAll(tagMap);
+		for (FeatureResult fr : other.getFeatures()) {
+			merged.addFeatureResult(fr);
+			fr.setOwner(owner);
+			// named again after the features of this result, as they would be if the merged result was tallied
+			fr.forgetSafeNames();
+		}
+		// the tags of this result are copied when the new features first change them
+		Set<TagResult> shared = Collections.newSetFromMap(new IdentityHashMap<TagResult, Boolean>());
+		shared.addAll(tagMap.values());
+		Tally tally = new Tally();
+		for (FeatureResult fr : other.getFeatures()) {
+			tally.add(fr);
+		}
+		merged.index(other.getFeatures(), tally, shared);
+		return merged;
+	}
+
+	/**
+	 * Makes this result the latest of the results that it was merged from, so that the features and tags that it
+	 * shares with them belong to it rather than the result they were in before.
+	 */
+	void publish() {
+		getPublished().set(this);
+	}
+
+	private AtomicReference<CucumberTestResult> getPublished() {
+		AtomicReference<CucumberTestResult> latest = published;
+		if (latest == null) {
+			synchronized (this) {
+				if (published == null) {
+					published = new AtomicReference<CucumberTestResult>(this);
 				}
+				latest = published;
 			}
 		}
-		// tally the tagResults
-		for (TagResult tr : tagMap.values()) {
+		return latest;
+	}
+
+	/**
+	 * Gets the result that a feature of this result belongs to, which is the latest published result that it was
+	 * merged into, or this result if it has not been merged into one.
+	 */
+	CucumberTestResult getParentOf(FeatureResult fr) {
+		CucumberTestResult latest = getPublished().get();
+		if (latest != this) {
+			// a feature that has not been named cannot be shared as a result names its features before it is merged
+			String safeName = fr.getAssignedSafeName();
+			if (safeName != null && latest.featuresById.get(safeName) == fr) {
+				return latest;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Gets the result that a tag of this result belongs to, as for {@link #getParentOf(FeatureResult)}.
+	 */
+	CucumberTestResult getParentOf(TagResult tr) {
+		CucumberTestResult latest = getPublished().get();
+		return latest != this && latest.tagMap.get(tr.getName()) == tr ? latest : this;
+	}
+
+	/**
+	 * Restores the state calculated by {@link #tally()} for a result whose features have been read from a summary
+	 * and whose scenarios will be loaded when they are needed. The counts of the features have already been added
+	 * by {@link #addFeatureResult(FeatureResult)}.
+	 * 
+	 * @param tagResults the (not yet loaded) tags of the scenarios.
+	 * @param failedScenarioResults the failed scenarios, which will load the features they belong to when read.
+	 */
+	void restoreTally(Collection<TagResult> tagResults, List<ScenarioResult> failedScenarioResults) {
+		featuresById.clear();
+		for (FeatureResult fr : featureResults) {
+			// not persisted as features may be merged into a restored result and need to be unique amongst these.
+			featuresById.put(fr.getSafeName(), fr);
+		}
+		this.failedScenarioResults = failedScenarioResults;
+		tagMap.clear();
+		for (TagResult tr : tagResults) {
 			tr.setParent(this);
-			tr.tally();
+			tagMap.put(tr.getName(), tr);
+		}
+	}
+
+	/**
+	 * The names of the tags that a scenario is listed under. This is the tags of the scenario and its feature, or
+	 * {@link #UNTAGGED_TEST_TAG} and the tags of its feature if the scenario itself has no tags.
+	 */
+	static Set<String> getTagNames(ScenarioResult scenarioResult) {
+		Set<String> tagNames = new HashSet<String>();
+		for (Statement.Line tag : scenarioResult.getParent().getStatement().getTags()) {
+			tagNames.add(tag.getText());
+		}
+		if (scenarioResult.getStatement().getTags().isEmpty()) {
+			tagNames.add(UNTAGGED_TEST_TAG);
 		}
+		else {
+			for (Statement.Line tag : scenarioResult.getStatement().getTags()) {
+				tagNames.add(tag.getText());
+			}
+		}
+		return tagNames;
 	}
 
 	/**
@@ -330,4 +568,106 @@ public class CucumberTestResult extends MetaTabulatedResult {
 	public String getDescription() {
 		return "Cucumber Test Results";
 	}
+
+	/**
+	 * The failed scenarios and the scenarios of each tag of a run of tallied features, in order.
+	 */
+	private static final class Tally {
+
+		final List<ScenarioResult> failed = new ArrayList<ScenarioResult>();
+		final Map<String, List<ScenarioResult>> tagged = new LinkedHashMap<String, List<ScenarioResult>>();
+
+
+		void add(FeatureResult fr) {
+			failed.addAll(fr.getFailedTests());
+			for (ScenarioResult scenarioResult : fr.getChildren()) {
+				for (String tagName : getTagNames(scenarioResult)) {
+					getTagged(tagName).add(scenarioResult);
+				}
+			}
+		}
+
+
+		/** Adds the scenarios of the features that follow those of this tally. */
+		void add(Tally next) {
+			failed.addAll(next.failed);
+			for (Map.Entry<String, List<ScenarioResult>> entry : next.tagged.entrySet()) {
+				getTagged(entry.getKey()).addAll(entry.getValue());
+			}
+		}
+
+
+		private List<ScenarioResult> getTagged(String tagName) {
+			List<ScenarioResult> scenarios = tagged.get(tagName);
+			if (scenarios == null) {
+				scenarios = new ArrayList<ScenarioResult>();
+				tagged.put(tagName, scenarios);
+			}
+			return scenarios;
+		}
+	}
+
+	/**
+	 * Stops the threads that tally large results when Jenkins shuts down, as Java 7 has no common pool to share
+	 * them with. A result tallied after this is tallied on the calling thread.
+	 */
+	@Terminator
+	public static void shutdownTallyPool() {
+		TallyTask.POOL.shutdown();
+	}
+
+	/**
+	 * Tallies a range of features by splitting it in two until it is small enough to tally directly, then combines
+	 * the halves in order.
+	 */
+	private static final class TallyTask extends RecursiveTask<Tally> {
+
+		private static final long serialVersionUID = 1L;
+
+		static final ForkJoinPool POOL = new ForkJoinPool();
+
+		private final List<FeatureResult> features;
+		private final int from;
+		private final int to;
+
+
+		TallyTask(List<FeatureResult> features, int from, int to) {
+			this.features = features;
+			this.from = from;
+			this.to = to;
+		}
+
+
+		/**
+		 * @return the tally of the features, or <code>null</code> if the pool has been shut down and they need
+		 *         tallying on the calling thread.
+		 */
+		static Tally tally(List<FeatureResult> features) {
+			try {
+				return POOL.invoke(new TallyTask(features, 0, features.size()));
+			}
+			catch (RejectedExecutionException ex) {
+				return null;
+			}
+		}
+
+
+		@Override
+		protected Tally compute() {
+			if (to - from <= Math.max(1, features.size() / (POOL.getParallelism() * 4))) {
+				Tally tally = new Tally();
+				for (FeatureResult fr : features.subList(from, to)) {
+					fr.tally();
+					tally.add(fr);
+				}
+				return tally;
+			}
+			int middle = (from + to) >>> 1;
+			TallyTask second = new TallyTask(features, middle, to);
+			second.fork();
+			Tally tally = new TallyTask(features, from, middle).compute();
+			tally.add(second.join());
+			return tally;
+		}
+	}
 }
@@ -23,6 +23,7 @@
  */
 package org.jenkinsci.plugins.cucumber.jsontestsupport;
 
+import hudson.AbortException;
 import hudson.Util;
 import hudson.XmlFile;
 import hudson.model.Action;
@@ -39,8 +40,10 @@ import jenkins.tasks.SimpleBuildStep.LastBuildAction;
 import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -55,24 +58,44 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * {@link Action} that displays the Cucumber test result.
  *
  * <p>
- * The actual test reports are isolated by {@link WeakReference}
- * so that it doesn't eat up too much memory.
+ * The actual test reports are held in the {@link CucumberResultCache}
+ * so that they don't eat up too much memory.
  *
  * @author James Nord
  * @author Kohsuke Kawaguchi (original junit support)
  */
-@SuppressFBWarnings(value={"UG_SYNC_SET_UNSYNC_GET"}, justification="the getter and setter are both synchronized")
+@SuppressFBWarnings(value={"UG_SYNC_SET_UNSYNC_GET"}, justification="the result is held by the CucumberResultCache which does its own locking")
 public class CucumberTestResultAction extends AbstractTestResultAction<CucumberTestResultAction> implements StaplerProxy, LastBuildAction {
 
    private static final Logger LOGGER = Logger.getLogger(CucumberTestResultAction.class.getName());
 
    private static final XStream XSTREAM = new XStream2();
 
-   private transient WeakReference<CucumberTestResult> result;
-   
-   private int totalCount = -1;
-	private int failCount = -1;
-	private int skipCount = -1;
+   /**
+    * Write results as XStream XML rather than the binary {@link CucumberResultCodec} format. Older versions of the
+    * plugin that kept the whole gherkin model can not read the XML written by this version.
+    */
+   static final boolean WRITE_XML = Boolean.getBoolean(CucumberTestResultAction.class.getName() + ".writeXML");
+
+   // volatile so the counts can be read without waiting for the result to be set or loaded
+   private volatile int totalCount = -1;
+	private volatile int failCount = -1;
+	private volatile int skipCount = -1;
+
+	/**
+	 * How many features the result that is on disk in the binary format has and the last of them, which is shared
+	 * by the results merged from it, so that their new features can be appended. Only used by the
+	 * {@link CucumberResultWriter}, which writes the results of a build one at a time. Weak so that it does not
+	 * stop the result being evicted from the cache.
+	 */
+	private transient volatile int persistedFeatureCount;
+	private transient volatile WeakReference<FeatureResult> persistedLastFeature;
+
+	/**
+	 * Counts the results set on this action, so that a merge can tell whether another result was set since it read
+	 * the current one, which the result itself can not tell as it may have been evicted and read again meanwhile.
+	 */
+	private transient volatile int revision;
 
 	static {
      XSTREAM.alias("result",CucumberTestResult.class);
@@ -93,40 +116,161 @@ public class CucumberTestResultAction extends AbstractTestResultAction<CucumberT
 	
    /**
     * Overwrites the {@link CucumberTestResult} by a new data set.
+    * The result is written to disk by the {@link CucumberResultWriter} in the background, any failure to do so is
+    * reported when the build completes.
     */
    public synchronized void setResult(CucumberTestResult result, TaskListener listener) {
        
        totalCount = result.getTotalCount();
        failCount = result.getFailCount();
        skipCount = result.getSkipCount();
+       revision++;
+
+       // the features and tags that the result shares with the one it was merged from now belong to it
+       result.publish();
+       CucumberResultCache.getInstance().put(getCacheKey(), result, estimateSize(result));
 
        // persist the data
-       try {
+       CucumberResultWriter.getInstance().write(getCacheKey(), result, new CucumberResultWriter.Persister() {
+           public void persist(CucumberTestResult result) throws IOException {
+               CucumberTestResultAction.this.persist(result);
+           }
+       });
+   }
+
+   /**
+    * Writes the result to disk. If the result was merged from the one that is already on disk its new features are
+    * appended to it, otherwise the binary result is written to a temporary directory that then replaces the
+    * existing one so a result is never left half written.
+    */
+   private void persist(CucumberTestResult result) throws IOException {
+       File resultDirectory = getResultDirectory();
+       int featureCount = result.getFeatures().size();
+       if (WRITE_XML) {
            getDataFile().write(result);
-       } catch (IOException ex) {
-           ex.printStackTrace(listener.fatalError("Failed to save the Cucumber test result."));
-           LOGGER.log(Level.WARNING, "Failed to save the Cucumber test result.", ex);
+           Util.deleteRecursive(resultDirectory);
+       }
+       else if (isMergedFromPersisted(result) && new File(resultDirectory, CucumberResultCodec.SUMMARY_FILE).exists()) {
+           if (featureCount > persistedFeatureCount) {
+               CucumberResultCodec.append(result, resultDirectory, persistedFeatureCount);
+           }
+       }
+       else {
+           File tmp = new File(resultDirectory.getPath() + ".tmp");
+           File backup = getBackupDirectory();
+           Util.deleteRecursive(tmp);
+           CucumberResultCodec.write(result, tmp);
+           Util.deleteRecursive(backup);
+           if (resultDirectory.exists()) {
+               Files.move(resultDirectory.toPath(), backup.toPath(), StandardCopyOption.ATOMIC_MOVE);
+           }
+           Files.move(tmp.toPath(), resultDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+           Util.deleteRecursive(backup);
+           Util.deleteFile(getDataFile().getFile());
+       }
+       setPersisted(WRITE_XML ? null : result);
+       // now we know how big it really is
+       CucumberResultCache.getInstance().update(getCacheKey(), result, estimateSize(result));
+   }
+
+   private void setPersisted(CucumberTestResult result) {
+       int count = result == null ? 0 : result.getFeatures().size();
+       persistedLastFeature = count == 0 ? null : new WeakReference<FeatureResult>(result.getFeatureResult(count - 1));
+       persistedFeatureCount = count;
+   }
+
+   /**
+    * Whether a result was merged from the one that is on disk, and so starts with the features that are on disk.
+    */
+   private boolean isMergedFromPersisted(CucumberTestResult result) {
+       int count = persistedFeatureCount;
+       WeakReference<FeatureResult> last = persistedLastFeature;
+       FeatureResult fr = last == null ? null : last.get();
+       return fr != null && result.getFeatures().size() >= count && result.getFeatureResult(count - 1) == fr;
+   }
+
+   /**
+    * Folds the features appended by merges into the summary of the result, once it has been written.
+    */
+   void compact() throws IOException {
+       File resultDirectory = getResultDirectory();
+       if (new File(resultDirectory, CucumberResultCodec.SUMMARY_FILE).exists()) {
+           CucumberResultCodec.compact(resultDirectory);
        }
+   }
 
-       this.result = new WeakReference<CucumberTestResult>(result);
+   private String getCacheKey() {
+      return run.getExternalizableId();
+   }
+
+   /**
+    * A rough estimate of the memory used by the result, based on the size of what was persisted.
+    * Features add the size of their scenarios to the cache as they load them.
+    */
+   private long estimateSize(CucumberTestResult result) {
+      File resultDirectory = getResultDirectory();
+      if (resultDirectory.exists()) {
+         return CucumberResultCodec.estimateSize(resultDirectory, result);
+      }
+      // and XStream's XML ~3 times larger
+      return getDataFile().getFile().length() / 3;
    }
 	
    private XmlFile getDataFile() {
       return new XmlFile(XSTREAM,new File(run.getRootDir(), "cucumberResult.xml"));
   }
 
+   /**
+    * The result in the format written by {@link CucumberResultCodec}, builds recorded before this was introduced
+    * only have the {@link #getDataFile() XML}.
+    */
+   private File getResultDirectory() {
+      return new File(run.getRootDir(), "cucumberResult");
+   }
+
+   /**
+    * Where the previous result is moved whilst a new one replaces it.
+    */
+   private File getBackupDirectory() {
+      return new File(run.getRootDir(), "cucumberResult.bak");
+   }
+
    /**
     * Loads a {@link TestResult} from disk.
+    * A result that cannot be read fails to load, so that it is not cached, and {@link #getResult()} shows a
+    * {@link CucumberTestResult#isBroken() broken} one in its place that a merge refuses to overwrite.
     */
-   private CucumberTestResult load() {
-   	CucumberTestResult r;
-       try {
-           r = (CucumberTestResult)getDataFile().read();
-       } catch (IOException e) {
-           LOGGER.log(Level.WARNING, "Failed to load " + getDataFile(), e);
-           r = new CucumberTestResult(); // return a dummy
+   private CucumberTestResult load() throws IOException {
+       CucumberTestResult r = CucumberResultWriter.getInstance().getPending(getCacheKey());
+       if (r != null) {
+           // evicted before it was written
+           return r;
+       }
+       File resultDirectory = getResultDirectory();
+       File backup = getBackupDirectory();
+       if (!resultDirectory.exists() && backup.exists() && !backup.renameTo(resultDirectory)) {
+           // Jenkins stopped whilst the result was being replaced
+           LOGGER.log(Level.WARNING, "Failed to restore {0}", backup);
+       }
+       if (new File(resultDirectory, CucumberResultCodec.SUMMARY_FILE).exists()) {
+           try {
+               // only the summary is read, features load their scenarios as they are needed
+               r = CucumberResultCodec.read(resultDirectory);
+           } catch (IOException e) {
+               throw new IOException("Failed to load " + resultDirectory, e);
+           }
+           // merges can be appended to it
+           setPersisted(r);
+       }
+       else {
+           // recorded by an older version of the plugin
+           try {
+               r = (CucumberTestResult)getDataFile().read();
+           } catch (IOException e) {
+               throw new IOException("Failed to load " + getDataFile(), e);
+           }
+           r.tally();
        }
-       r.tally();
        r.setOwner(this.run);
        return r;
    }
@@ -152,19 +296,21 @@ public class CucumberTestResultAction extends AbstractTestResultAction<CucumberT
 
 	@Override
 	@Exported(visibility = 5)
-	public synchronized CucumberTestResult getResult() {
-		CucumberTestResult r;
-		if (result == null) {
-			r = load();
-			result = new WeakReference<CucumberTestResult>(r);
-		}
-		else {
-			r = result.get();
-		}
+	public CucumberTestResult getResult() {
+		CucumberTestResult r = CucumberResultCache.getInstance().get(getCacheKey(), new CucumberResultCache.Loader() {
+			public CucumberTestResult load() throws IOException {
+				return CucumberTestResultAction.this.load();
+			}
 
+			public long estimateSize(CucumberTestResult result) {
+				return CucumberTestResultAction.this.estimateSize(result);
+			}
+		});
 		if (r == null) {
-			r = load();
-			result = new WeakReference<CucumberTestResult>(r);
+			// the failure has been logged, the result is read again the next time it is needed
+			r = CucumberTestResult.broken();
+			r.setOwner(run);
+			return r;
 		}
 
 		if (totalCount == -1) {
@@ -198,32 +344,49 @@ public class CucumberTestResultAction extends AbstractTestResultAction<CucumberT
 
 	/**
 	 * Merge results from other into an existing set of results.
+	 * The merged result is a new snapshot, so anyone reading the current result is not disturbed, which replaces the
+	 * current result provided that no other merge replaced it in the meantime. Otherwise the merge is retried on top
+	 * of the other one.
 	 * @param other
 	 *           the result to merge with the current results.
 	 * @param listener
+	 * @throws AbortException if the current result could not be read, as merging into it would replace it.
 	 */
-	synchronized void mergeResult(CucumberTestResult other, TaskListener listener) {
-		CucumberTestResult cr = getResult();
-		for (FeatureResult fr : other.getFeatures()) {
+	void mergeResult(CucumberTestResult other, TaskListener listener) throws AbortException {
+		while (true) {
+			int read = revision;
+			CucumberTestResult cr = getResult();
+			if (cr.isBroken()) {
+				throw new AbortException("The Cucumber test result already recorded by this build could not be read, "
+				                         + "so the new results can not be added to it.");
+			}
 			// We need to add =the new results to the existing ones to keep the names stable
 			// otherwise any embedded items will be attached to the wrong result
-			// XXX this has the potential to cause a concurrentModificationException or other bad issues if someone is getting all the features...
-			cr.addFeatureResult(fr);
+			// the tags and totals are persisted with the result so they need to include the new features, without
+			// tallying the existing ones again
+			CucumberTestResult merged = cr.merge(other);
+			synchronized (this) {
+				if (revision == read) {
+					// the new features are only resolved now their names, and so their ids, will not change again
+					merged.resolveStatus(other.getFeatures());
+					// persist the new result to disk, which appends the new features
+					this.setResult(merged, listener);
+					return;
+				}
+			}
 		}
-		//cr.tally();
-		// XXX Do we need to add TagResults or call tally()?
-		// persist the new result to disk
-		this.setResult(cr, listener);
 	}
 
 	@Override
 	public Collection<? extends Action> getProjectActions() {
 		// TODO use our own action to not conflict with junit
 		Job<?,?> job = run.getParent();
+		Action flakiness = new CucumberFlakinessAction(job);
+		Action durations = new CucumberDurationAction(job);
 		if (/* getAction(Class) produces a StackOverflowError */!Util.filter(job.getActions(), TestResultProjectAction.class).isEmpty()) {
 			// JENKINS-26077: someone like XUnitPublisher already added one
-			return Collections.emptySet();
+			return Arrays.asList(flakiness, durations);
 		}
-		return Collections.singleton(new TestResultProjectAction(job));
+		return Arrays.asList(new TestResultProjectAction(job), flakiness, durations);
 	}
 }
@@ -34,13 +34,14 @@ import hudson.matrix.MatrixBuild;
 import hudson.model.Action;
 import hudson.model.BuildListener;
 import hudson.model.CheckPoint;
+import hudson.model.Computer;
 import hudson.model.Job;
 import hudson.model.Result;
 import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Run;
 import hudson.model.TaskListener;
-import hudson.remoting.Callable;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Publisher;
@@ -48,14 +49,19 @@ import hudson.tasks.Recorder;
 import hudson.tasks.test.TestResultAggregator;
 import hudson.tasks.test.TestResultProjectAction;
 import hudson.util.FormValidation;
-import jenkins.security.MasterToSlaveCallable;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.tasks.SimpleBuildStep;
 import net.sf.json.JSONObject;
 
@@ -86,6 +92,9 @@ public class CucumberTestResultArchiver extends Recorder implements MatrixAggreg
 
 	private boolean ignoreBadSteps;
 
+	/** The number of threads to parse the reports with on the agent. */
+	private int parserThreads = 1;
+
 	@DataBoundConstructor
 	public CucumberTestResultArchiver(String testResults) {
 		this.testResults = testResults;
@@ -105,6 +114,16 @@ public class CucumberTestResultArchiver extends Recorder implements MatrixAggreg
 		return ignoreBadSteps;
 	}
 
+	@DataBoundSetter
+	public void setParserThreads(int parserThreads){
+		this.parserThreads = parserThreads;
+	}
+
+	public int getParserThreads(){
+		// configurations saved before this existed will have 0
+		return Math.max(1, parserThreads);
+	}
+
     @Override
     @SuppressFBWarnings(value={"NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE"}, justification="whatever")
     public boolean
@@ -129,65 +148,146 @@ public class CucumberTestResultArchiver extends Recorder implements MatrixAggreg
 
 		final String _testResults = build.getEnvironment(listener).expand(this.testResults);
 
-		CucumberJSONParser parser = new CucumberJSONParser(ignoreBadSteps);
+		CucumberJSONParser parser = new CucumberJSONParser(ignoreBadSteps, getParserThreads());
+
+		// embedded items are decoded into a scratch directory for this publication which is always removed
+		FilePath embedDir = createEmbedDirectory(workspace);
+		CucumberTestResult result;
+		try {
+			parser.setEmbedDirectory(embedDir.getRemote());
+			result = parser.parseResult(_testResults, build, workspace, launcher, listener);
+
+			// embedded items are stored once per job by their content, so only copy those the master does not have
+			// whilst the result is recorded.
+			EmbeddedItemStore store = new EmbeddedItemStore(build.getParent().getRootDir());
+			Set<String> missing = store.reference(build.getRootDir(), getEmbeddedItemHashes(result));
+			Future<Void> transfer = null;
+			if (!missing.isEmpty()) {
+				transfer = Computer.threadPoolForRemoting.submit(new EmbeddedItemTransfer(embedDir, store, missing));
+			}
+			try {
+				action = build.getAction(CucumberTestResultAction.class);
+
+				// the previous build has published its result, and so recorded it in the history of the job, once
+				// the checkpoint is passed
+				CHECKPOINT.block();
+				if (action == null) {
+					// once, against the history of the job, rather than every time the result is shown. A merged
+					// result is resolved once its features have their final names.
+					result.resolveStatus();
+					action = new CucumberTestResultAction(build, result, listener);
+				}
+				else {
+					action.mergeResult(result, listener);
+					build.save();
+				}
+				recordHistory(build, action.getResult(), listener);
+				CHECKPOINT.report();
+				// action.setHealthScaleFactor(getHealthScaleFactor()); // overwrites previous value if appending
+			}
+			finally {
+				if (transfer != null) {
+					waitForTransfer(transfer);
+				}
+			}
+		}
+		finally {
+			deleteEmbedDirectory(embedDir, listener);
+		}
+
+		if (result.getPassCount() == 0 && result.getFailCount() == 0 && result.getSkipCount() == 0)
+			throw new AbortException("No cucumber scenarios appear to have been run.");
+
+		if (action.getResult().getTotalCount() == action.getResult().getFailCount()){
+			build.setResult(Result.FAILURE);
+		} else if (action.getResult().getFailCount() > 0) {
+			build.setResult(Result.UNSTABLE);
+		}
+
+		return true;
+	}
+
 
-		CucumberTestResult result = parser.parseResult(_testResults, build, workspace, launcher, listener);
+	/**
+	 * Records the published result in the {@link ScenarioHistory} of the job, so that the next build, which may be
+	 * running already, resolves the status of its scenarios against it.
+	 */
+	private static void recordHistory(Run<?, ?> build, CucumberTestResult result, TaskListener listener) {
+		if (result.isBroken()) {
+			return;
+		}
+		try {
+			ScenarioHistory.of(build.getParent()).record(build, result);
+		} catch (IOException e) {
+			// later builds will be compared with the builds before this one
+			e.printStackTrace(listener.error("Failed to record the Cucumber test result in the scenario history"));
+		}
+	}
 
-		// TODO - look at all of the Scenarios and see if there are any embedded items contained with in them
-		String remoteTempDir = workspace.act(new TmpDirCallable());
 
-		// if so we need to copy them to the master.
+	/**
+	 * Creates a new directory in the workspaces temporary directory (<code>workspace@tmp</code>) to hold the items
+	 * embedded in the reports whilst they are being published.
+	 */
+	private static FilePath createEmbedDirectory(FilePath workspace) throws IOException, InterruptedException {
+		FilePath tmp = workspace.sibling(workspace.getName() + "@tmp");
+		tmp.mkdirs();
+		return tmp.createTempDir("cucumber", ".embed");
+	}
+
+
+	/**
+	 * @return the hashes of all the items embedded in the result.
+	 */
+	private static Set<String> getEmbeddedItemHashes(CucumberTestResult result) throws IOException {
+		Set<String> hashes = new LinkedHashSet<String>();
 		for (FeatureResult f : result.getFeatures()) {
 			for (ScenarioResult s : f.getScenarioResults()) {
 				for (EmbeddedItem item : s.getEmbeddedItems()) {
-					// this is the wrong place to do the copying...
-					// XXX Need to do something with MasterToSlaveCallable to makesure we are safe from evil
-					// injection
-					FilePath srcFilePath = new FilePath(workspace, remoteTempDir + '/' + item.getFilename());
-					// XXX when we support the workflow we will need to make sure that these files do not clash....
-					File destRoot = new File(build.getRootDir(), "/cucumber/embed/" + f.getSafeName() + '/' + s
-							.getSafeName() + '/');
-					destRoot.mkdirs();
-					File destFile = new File(destRoot, item.getFilename());
-					if (!destFile.getAbsolutePath().startsWith(destRoot.getAbsolutePath())) {
+					if (!EmbeddedItemStore.isHash(item.getHash())) {
 						// someone is trying to trick us into writing abitrary files...
-						throw new IOException("Exploit attempt detected - Build attempted to write to " +
-								destFile.getAbsolutePath());
+						throw new IOException("Exploit attempt detected - Build embedded an item with a hash of " +
+								item.getHash());
 					}
-					FilePath destFilePath = new FilePath(destFile);
-					srcFilePath.copyTo(destFilePath);
-					srcFilePath.delete();
+					hashes.add(item.getHash());
 				}
 			}
 		}
-		
-		action = build.getAction(CucumberTestResultAction.class);
-		
-		if (action == null) {
-			action = new CucumberTestResultAction(build, result, listener);
-			CHECKPOINT.block();
-			//build.addAction(action);
-			CHECKPOINT.report();
+		return hashes;
+	}
+
+
+	private static void waitForTransfer(Future<Void> transfer) throws IOException, InterruptedException {
+		try {
+			transfer.get();
 		}
-		else {
-			CHECKPOINT.block();
-			action.mergeResult(result, listener);
-			build.save();
-			CHECKPOINT.report();
+		catch (InterruptedException ex) {
+			transfer.cancel(true);
+			throw ex;
 		}
-		// action.setHealthScaleFactor(getHealthScaleFactor()); // overwrites previous value if appending
-		
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof InterruptedException) {
+				throw (InterruptedException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException("Failed to copy the embedded items", cause);
+		}
+	}
 
-		if (result.getPassCount() == 0 && result.getFailCount() == 0 && result.getSkipCount() == 0)
-			throw new AbortException("No cucumber scenarios appear to have been run.");
 
-		if (action.getResult().getTotalCount() == action.getResult().getFailCount()){
-			build.setResult(Result.FAILURE);
-		} else if (action.getResult().getFailCount() > 0) {
-			build.setResult(Result.UNSTABLE);
+	private static void deleteEmbedDirectory(FilePath embedDir, TaskListener listener) throws InterruptedException {
+		try {
+			embedDir.deleteRecursive();
+		}
+		catch (IOException ex) {
+			ex.printStackTrace(listener.error("[Cucumber Tests] Failed to remove " + embedDir));
 		}
-
-		return true;
 	}
 
 
@@ -228,19 +328,81 @@ public class CucumberTestResultArchiver extends Recorder implements MatrixAggreg
 
 
 	/**
-	 * {@link Callable} that gets the temporary directory from the node. 
+	 * Copies the embedded items from the agent in a single stream (rather than a few round trips per item) to a
+	 * staging directory in the {@link EmbeddedItemStore}, and then moves them into the store. The items to copy are
+	 * first moved into a directory of their own on the agent, so the whole of it is copied rather than matching every
+	 * item against a pattern naming each of them.
 	 */
-	private final static class TmpDirCallable extends MasterToSlaveCallable<String, InterruptedException> {
+	private static final class EmbeddedItemTransfer implements Callable<Void> {
 
-		private static final long serialVersionUID = 1L;
+		private final FilePath embedDir;
+		private final EmbeddedItemStore store;
+		private final Set<String> hashes;
 
-		@Override
-		public String call() {
-			return System.getProperty("java.io.tmpdir");
+
+		EmbeddedItemTransfer(FilePath embedDir, EmbeddedItemStore store, Set<String> hashes) {
+			this.embedDir = embedDir;
+			this.store = store;
+			this.hashes = hashes;
+		}
+
+
+		public Void call() throws IOException, InterruptedException {
+			store.getRoot().mkdirs();
+			FilePath staging = new FilePath(store.getRoot()).createTempDir("transfer", ".tmp");
+			try {
+				FilePath outgoing = embedDir.child(OUTGOING);
+				embedDir.act(new Outgoing(hashes));
+				outgoing.copyRecursiveTo("*", staging);
+				File stagingDir = new File(staging.getRemote());
+				for (String hash : hashes) {
+					store.add(new File(stagingDir, hash), hash);
+				}
+			}
+			finally {
+				staging.deleteRecursive();
+			}
+			return null;
 		}
 	}
 
 
+	/** the directory that the embedded items to copy to the master are moved into on the agent. */
+	private static final String OUTGOING = "outgoing";
+
+
+	/**
+	 * Moves the given embedded items, which are named by their hash, into the {@link #OUTGOING} directory of the
+	 * directory they were decoded into.
+	 */
+	private static final class Outgoing extends MasterToSlaveFileCallable<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Set<String> hashes;
+
+
+		Outgoing(Set<String> hashes) {
+			this.hashes = hashes;
+		}
+
+
+		public Void invoke(File embedDir, VirtualChannel channel) throws IOException {
+			File outgoing = new File(embedDir, OUTGOING);
+			if (!outgoing.isDirectory() && !outgoing.mkdir()) {
+				throw new IOException("Could not create " + outgoing);
+			}
+			for (String hash : hashes) {
+				File item = new File(embedDir, hash);
+				// an item that is missing is reported when it is added to the store
+				if (item.exists() && !item.renameTo(new File(outgoing, hash))) {
+					throw new IOException("Could not move " + item + " to " + outgoing);
+				}
+			}
+			return null;
+		}
+	}
+
 
 	@Extension
 	@Symbol("cucumber")
@@ -256,7 +418,9 @@ public class CucumberTestResultArchiver extends Recorder implements MatrixAggreg
 			String testResults = formData.getString("testResults");
 			boolean ignoreBadSteps = formData.getBoolean("ignoreBadSteps");
 			LOGGER.fine("ignoreBadSteps = "+ ignoreBadSteps);
-			return new CucumberTestResultArchiver(testResults, ignoreBadSteps);
+			CucumberTestResultArchiver archiver = new CucumberTestResultArchiver(testResults, ignoreBadSteps);
+			archiver.setParserThreads(formData.optInt("parserThreads", 1));
+			return archiver;
 		}
 
 
@@ -23,6 +23,7 @@
  */
 package org.jenkinsci.plugins.cucumber.jsontestsupport;
 
+import gherkin.formatter.model.Match;
 import gherkin.formatter.model.Result;
 import gherkin.formatter.model.TagStatement;
 
@@ -30,9 +31,12 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.security.MessageDigest;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.apache.commons.io.FileUtils;
+
 
 public class CucumberUtils {
 
@@ -45,14 +49,25 @@ public class CucumberUtils {
 	public static final String SKIPPED_TEST_STRING = "skipped";
 
 
-	/** Get the duration (in seconds) that the result took. */
-	static float durationFromResult(Result result) {
-		// internally this is in nanosecodes
+	/** Get the duration (in nanoseconds) that the result took. */
+	static long getDuration(Result result) {
 		Long l = result.getDuration();
 		if (l == null) {
-			return 0.0f;
+			return 0L;
 		}
-		return l.floatValue() / 1000000000.0f;
+		return l.longValue();
+	}
+
+
+	/** Converts a duration in nanoseconds to the seconds used by the test results. */
+	static float nanosToSeconds(long nanos) {
+		return nanos / 1000000000.0f;
+	}
+
+
+	/** Get the location of the matched code, possibly <code>null</code>. */
+	static String getLocation(Match match) {
+		return match == null ? null : match.getLocation();
 	}
 
 
@@ -86,22 +101,52 @@ public class CucumberUtils {
 
 
 	/**
-	 * Create a temporary file on the slave to store the embedded content
+	 * Create an empty file on the slave to store embedded content.
+	 * 
+	 * @param directory the directory to create the file in, or <code>null</code> for the temporary directory.
+	 * @throws IOException if we couldn't create the file
+	 */
+	static File createEmbedFile(File directory) throws IOException {
+		return File.createTempFile("cuke_", ".embed", directory);
+	}
+
+
+	/**
+	 * Create a file on the slave containing the embedded content named by its hash.
+	 * 
+	 * @param directory the directory to create the file in, or <code>null</code> for the temporary directory.
+	 * @throws IOException if we couldn't create the file
+	 */
+	static EmbeddedItem createEmbeddedItem(File directory, String mimeType, byte[] data) throws IOException {
+		MessageDigest digest = EmbeddedItemStore.newDigest();
+		digest.update(data);
+		String hash = EmbeddedItemStore.toHash(digest);
+		File f = createEmbedFile(directory);
+		FileOutputStream fos = new FileOutputStream(f);
+		try {
+			fos.write(data);
+			fos.flush();
+		}
+		finally {
+			fos.close();
+		}
+		return new EmbeddedItem(mimeType, renameEmbedFile(f, hash), hash);
+	}
+
+
+	/**
+	 * Renames an embedded item to its hash, so that each distinct item is only kept (and copied to the master) once.
 	 * 
-	 * @throws IOException if we couldn't create a temporary file
+	 * @return the new name of the file.
+	 * @throws IOException if we couldn't rename the file
 	 */
-	public static File createEmbedFile(byte[] data) throws IOException {
-		File f = File.createTempFile("cuke_", ".embed");
-		{
-			FileOutputStream fos = new FileOutputStream(f);
-			try {
-				fos.write(data);
-				fos.flush();
-			}
-			finally {
-				fos.close();
-			}
+	static String renameEmbedFile(File file, String hash) throws IOException {
+		File dest = new File(file.getParentFile(), hash);
+		if (!dest.isFile() && !file.renameTo(dest) && !dest.isFile()) {
+			throw new IOException("Failed to rename " + file + " to " + dest);
 		}
-		return f;
+		// identical to one that is already there
+		FileUtils.deleteQuietly(file);
+		return dest.getName();
 	}
 }
@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.util.Arrays;
+
+/**
+ * A small sketch of a set of durations that can answer quantiles, such as the median or 95th percentile, to within
+ * 1% of the actual value without holding the durations themselves.
+ * <p>
+ * Durations are counted in buckets whose bounds grow by a constant factor, so a bucket is only ever 1% either side
+ * of the durations in it. Durations under a millisecond are counted together as 0. As only the counts are held,
+ * durations can be removed as well as added, which keeps the sketch of a sliding window up to date, and sketches can
+ * be merged by adding their counts.
+ *
+ * @author James Nord
+ */
+final class DurationSketch {
+
+	static final double RELATIVE_ACCURACY = 0.01;
+
+	/** The smallest duration, in seconds, that is not counted as 0. */
+	static final float MIN_DURATION = 0.001f;
+
+	private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+	private static final double LOG_GAMMA = Math.log(GAMMA);
+
+	private int count;
+	private int zeroCount;
+	/** the number of buckets in use, in order of key. */
+	private int size;
+	private int[] keys = new int[4];
+	private int[] counts = new int[4];
+
+
+	DurationSketch() {
+	}
+
+
+	DurationSketch(DurationSketch sketch) {
+		count = sketch.count;
+		zeroCount = sketch.zeroCount;
+		size = sketch.size;
+		keys = Arrays.copyOf(sketch.keys, Math.max(size, 4));
+		counts = Arrays.copyOf(sketch.counts, Math.max(size, 4));
+	}
+
+
+	/**
+	 * @param duration in seconds.
+	 */
+	void add(float duration) {
+		update(duration, 1);
+	}
+
+
+	/**
+	 * Removes a duration that was added before.
+	 *
+	 * @param duration in seconds.
+	 */
+	void remove(float duration) {
+		update(duration, -1);
+	}
+
+
+	/**
+	 * Adds the durations of another sketch to this one.
+	 */
+	void merge(DurationSketch other) {
+		count += other.count;
+		zeroCount += other.zeroCount;
+		for (int i = 0; i < other.size; i++) {
+			updateBucket(other.keys[i], other.counts[i]);
+		}
+	}
+
+
+	/** The number of durations in the sketch. */
+	int getCount() {
+		return count;
+	}
+
+
+	/**
+	 * Gets the duration at the given quantile.
+	 *
+	 * @param quantile between 0 and 1, 0.5 for the median.
+	 * @return the duration in seconds, or 0 if the sketch is empty.
+	 */
+	float getQuantile(double quantile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) (quantile * (count - 1));
+		long seen = zeroCount;
+		if (rank < seen) {
+			return 0;
+		}
+		for (int i = 0; i < size; i++) {
+			seen += counts[i];
+			if (rank < seen) {
+				return value(keys[i]);
+			}
+		}
+		return value(keys[size - 1]);
+	}
+
+
+	private void update(float duration, int delta) {
+		count += delta;
+		if (duration < MIN_DURATION) {
+			zeroCount += delta;
+		}
+		else {
+			updateBucket((int) Math.ceil(Math.log(duration) / LOG_GAMMA), delta);
+		}
+	}
+
+
+	/**
+	 * Updates the count of a bucket, dropping it when it is empty.
+	 */
+	private void updateBucket(int key, int delta) {
+		int i = Arrays.binarySearch(keys, 0, size, key);
+		if (i >= 0) {
+			counts[i] += delta;
+			if (counts[i] == 0) {
+				size--;
+				System.arraycopy(keys, i + 1, keys, i, size - i);
+				System.arraycopy(counts, i + 1, counts, i, size - i);
+			}
+		}
+		else if (delta > 0) {
+			i = -i - 1;
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				counts = Arrays.copyOf(counts, size * 2);
+			}
+			System.arraycopy(keys, i, keys, i + 1, size - i);
+			System.arraycopy(counts, i, counts, i + 1, size - i);
+			keys[i] = key;
+			counts[i] = delta;
+			size++;
+		}
+	}
+
+
+	/** The duration in the middle of a bucket, relative to its bounds, so it is within the accuracy of both. */
+	private static float value(int key) {
+		return (float) (2 * Math.pow(GAMMA, key) / (GAMMA + 1));
+	}
+}
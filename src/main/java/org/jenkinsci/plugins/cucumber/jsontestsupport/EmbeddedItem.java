@@ -42,11 +42,22 @@ public class EmbeddedItem implements Serializable {
 	/** The name if the embedded file on disk */
 	private String filename;
 
+	/**
+	 * The SHA-256 of the content, which is held in the jobs {@link EmbeddedItemStore}. <code>null</code> for items
+	 * recorded before the store existed which are held in the builds <code>cucumber/embed</code> directory.
+	 */
+	private String hash;
+
 	public EmbeddedItem(String mimetype, String filename) {
 		this.mimetype = mimetype;
 		this.filename = filename;
 	}
 
+	public EmbeddedItem(String mimetype, String filename, String hash) {
+		this(mimetype, filename);
+		this.hash = hash;
+	}
+
 	protected String getFilename() {
 		return filename;
 	}
@@ -55,4 +66,8 @@ public class EmbeddedItem implements Serializable {
 		return mimetype;
 	}
 
+	protected String getHash() {
+		return hash;
+	}
+
 }
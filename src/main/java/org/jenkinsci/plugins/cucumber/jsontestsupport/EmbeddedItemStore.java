@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A job level store of embedded items keyed by the SHA-256 of their content, so that a screenshot attached to many
+ * scenarios (or in many builds) is only transferred and stored once.
+ * <p>
+ * Items are stored in <code>cucumber-embeds/&lt;first two characters of hash&gt;/&lt;hash&gt;</code> in the jobs
+ * root directory.
+ * <p>
+ * Each build lists the items that it refers to in <code>cucumber-embeds.txt</code> in its root directory. When a
+ * build is deleted the items that no other build refers to are removed. Builds that were archived before the store
+ * keep their embedded items under <code>cucumber/embed</code> in their own directory, so they refer to nothing in it.
+ *
+ * @author James Nord
+ */
+final class EmbeddedItemStore {
+
+	private static final Logger LOGGER = Logger.getLogger(EmbeddedItemStore.class.getName());
+
+	static final String DIRECTORY = "cucumber-embeds";
+
+	static final String REFERENCES_FILE = "cucumber-embeds.txt";
+
+	private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+	private static final Pattern BUCKET = Pattern.compile("[0-9a-f]{2}");
+
+	/** Keeps a sweep of a store from removing the items that a build is referring to at the same time. */
+	private static final ConcurrentMap<File, Object> LOCKS = new ConcurrentHashMap<File, Object>();
+
+	private final File root;
+
+
+	EmbeddedItemStore(File jobRootDir) {
+		this.root = new File(jobRootDir, DIRECTORY);
+	}
+
+
+	File getRoot() {
+		return root;
+	}
+
+
+	/**
+	 * @return the file that holds the item with the given hash (which may not exist).
+	 * @throws IllegalArgumentException if <code>hash</code> is not a hash.
+	 */
+	File getFile(String hash) {
+		if (!isHash(hash)) {
+			throw new IllegalArgumentException("Invalid embedded item hash: " + hash);
+		}
+		return new File(new File(root, hash.substring(0, 2)), hash);
+	}
+
+
+	boolean contains(String hash) {
+		return getFile(hash).isFile();
+	}
+
+
+	/**
+	 * @return those of the given hashes that are not in the store.
+	 */
+	Set<String> getMissing(Collection<String> hashes) {
+		Set<String> missing = new LinkedHashSet<String>();
+		for (String hash : hashes) {
+			if (!contains(hash)) {
+				missing.add(hash);
+			}
+		}
+		return missing;
+	}
+
+
+	/**
+	 * Records that a build refers to the given items and gets those that are not in the store. Both are done at once
+	 * so that a sweep can not remove an item that the build has found is already stored.
+	 *
+	 * @return those of the given hashes that are not in the store.
+	 */
+	Set<String> reference(File buildRootDir, Collection<String> hashes) throws IOException {
+		synchronized (getLock()) {
+			File file = new File(buildRootDir, REFERENCES_FILE);
+			Set<String> references = readReferences(file);
+			if (references.addAll(hashes)) {
+				File tmp = new File(buildRootDir, REFERENCES_FILE + ".tmp");
+				StringBuilder sb = new StringBuilder();
+				for (String hash : references) {
+					sb.append(hash).append('\n');
+				}
+				FileUtils.writeStringToFile(tmp, sb.toString(), "UTF-8");
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				           StandardCopyOption.ATOMIC_MOVE);
+			}
+			return getMissing(hashes);
+		}
+	}
+
+
+	/**
+	 * Removes the items that none of the builds in the given directory refer to, other than a build that is being
+	 * deleted. A build without a list of the items that it refers to refers to none of them.
+	 *
+	 * @param buildsDir the directory that holds the builds of the job.
+	 * @param deleted the root directory of the build that is being deleted, or <code>null</code>.
+	 * @return the number of items that were removed.
+	 */
+	int sweep(File buildsDir, File deleted) throws IOException {
+		synchronized (getLock()) {
+			File[] builds = buildsDir.listFiles();
+			if (builds == null) {
+				return 0;
+			}
+			String skip = deleted == null ? null : deleted.getCanonicalPath();
+			Set<String> referenced = new HashSet<String>();
+			for (File build : builds) {
+				if (!build.isDirectory() || build.getCanonicalPath().equals(skip)) {
+					continue;
+				}
+				File references = new File(build, REFERENCES_FILE);
+				referenced.addAll(readReferences(references));
+			}
+			int removed = 0;
+			File[] buckets = root.listFiles();
+			for (File bucket : buckets == null ? new File[0] : buckets) {
+				File[] items = BUCKET.matcher(bucket.getName()).matches() ? bucket.listFiles() : null;
+				for (File item : items == null ? new File[0] : items) {
+					if (isHash(item.getName()) && !referenced.contains(item.getName()) && item.delete()) {
+						removed++;
+					}
+				}
+			}
+			return removed;
+		}
+	}
+
+
+	private Object getLock() {
+		Object lock = LOCKS.get(root);
+		if (lock == null) {
+			Object created = new Object();
+			lock = LOCKS.putIfAbsent(root, created);
+			if (lock == null) {
+				lock = created;
+			}
+		}
+		return lock;
+	}
+
+
+	private static Set<String> readReferences(File file) throws IOException {
+		Set<String> references = new LinkedHashSet<String>();
+		if (file.isFile()) {
+			List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+			for (String line : lines) {
+				if (isHash(line)) {
+					references.add(line);
+				}
+			}
+		}
+		return references;
+	}
+
+
+	/**
+	 * Moves <code>file</code> into the store after checking that its content matches <code>hash</code>.
+	 */
+	void add(File file, String hash) throws IOException {
+		File dest = getFile(hash);
+		String actual = hash(file);
+		if (!actual.equals(hash)) {
+			// someone is trying to trick us into serving the wrong content in other builds.
+			throw new IOException("Exploit attempt detected - embedded item " + hash + " has a hash of " + actual);
+		}
+		if (dest.isFile()) {
+			// another build beat us to it
+			FileUtils.deleteQuietly(file);
+			return;
+		}
+		dest.getParentFile().mkdirs();
+		if (!file.renameTo(dest) && !dest.isFile()) {
+			throw new IOException("Failed to move " + file + " to " + dest);
+		}
+		// if the rename failed because of a concurrent add then the content is the same.
+		FileUtils.deleteQuietly(file);
+	}
+
+
+	static boolean isHash(String hash) {
+		return hash != null && HASH.matcher(hash).matches();
+	}
+
+
+	static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new CucumberPluginException("SHA-256 is not supported by this JVM", ex);
+		}
+	}
+
+
+	static String toHash(MessageDigest digest) {
+		return Hex.encodeHexString(digest.digest());
+	}
+
+
+	static String hash(File file) throws IOException {
+		MessageDigest digest = newDigest();
+		InputStream is = new BufferedInputStream(new FileInputStream(file));
+		try {
+			byte[] buf = new byte[8192];
+			int read;
+			while ((read = is.read(buf)) != -1) {
+				digest.update(buf, 0, read);
+			}
+		}
+		finally {
+			is.close();
+		}
+		return toHash(digest);
+	}
+
+	/**
+	 * Removes the embedded items that are no longer referred to when a build is deleted, whilst its list of the items
+	 * that it refers to is still there.
+	 */
+	@Extension
+	public static final class RunDeletedListener extends RunListener<Run<?, ?>> {
+
+		@Override
+		public void onDeleted(Run<?, ?> run) {
+			EmbeddedItemStore store = new EmbeddedItemStore(run.getParent().getRootDir());
+			if (!store.getRoot().isDirectory() || !new File(run.getRootDir(), REFERENCES_FILE).isFile()) {
+				return;
+			}
+			try {
+				int removed = store.sweep(run.getParent().getBuildDir(), run.getRootDir());
+				LOGGER.log(Level.FINE, "Removed {0} embedded items no longer referred to after {1} was deleted",
+				           new Object[] { Integer.valueOf(removed), run });
+			}
+			catch (IOException ex) {
+				LOGGER.log(Level.WARNING, "Failed to remove the embedded items of " + run, ex);
+			}
+		}
+	}
+}
@@ -29,11 +29,15 @@ import hudson.tasks.test.MetaTabulatedResult;
 import hudson.tasks.test.TestObject;
 import hudson.tasks.test.TestResult;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
@@ -50,17 +54,25 @@ public class FeatureResult extends MetaTabulatedResult {
 
 	private static final long serialVersionUID = 995206500596875310L;
 
-	private Feature feature;
+	private static final Logger LOGGER = Logger.getLogger(FeatureResult.class.getName());
+
+	private Statement statement;
 	private String uri;
 	private transient Run<?, ?> owner;
-	private transient String safeName;
+	private transient volatile String safeName;
+
+	/** Makes the safe names of the scenarios unique, guarded by this. */
+	private transient SafeNames scenarioNames;
+
+	/** The number of scenarios that have been named, guarded by this. */
+	private transient int namedScenarios;
 	
 	private List<ScenarioResult> scenarioResults = new ArrayList<ScenarioResult>();
 
 	private transient List<ScenarioResult> failedScenarioResults;
 	/**
 	 *  Map of scenarios keyed by scenario name.
-	 *  Recomputed by a call to {@link CucumberTestResult#tally()}
+	 *  Recomputed by a call to {@link CucumberTestResult#tally()}, or when next needed if it is <code>null</code>.
 	 */
 	private transient Map<String,ScenarioResult> scenariosByID = new TreeMap<String, ScenarioResult>();
 	
@@ -74,9 +86,43 @@ public class FeatureResult extends MetaTabulatedResult {
 	// TODO should this be reset on loading from xStream
 	private CucumberTestResult parent;
 
+	/**
+	 * Where to read the scenarios from if this was restored from a summary and they have not been needed yet,
+	 * otherwise <code>null</code>.
+	 */
+	private transient File scenarioFile;
+
+	/** Whether the scenarios could not be read from the {@link #scenarioFile}. */
+	private transient boolean scenariosBroken;
+
+	/** The background of the last scenario added, whose definition is shared with the scenarios that follow. */
+	private transient BackgroundResult background;
+
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
+	private Feature feature;
+
 	FeatureResult(String uri, Feature feature) {
+		this(uri, Statement.of(feature, StringTable.NONE));
+	}
+
+
+	FeatureResult(String uri, Statement statement) {
 		this.uri = uri;
-		this.feature = feature;
+		this.statement = statement;
+	}
+
+
+	/**
+	 * Converts a result recorded by an older version that held on to the whole gherkin model.
+	 */
+	@SuppressWarnings("deprecation")
+	protected Object readResolve() {
+		if (feature != null) {
+			statement = Statement.of(feature, StringTable.NONE);
+			feature = null;
+		}
+		return this;
 	}
 	
 
@@ -86,17 +132,19 @@ public class FeatureResult extends MetaTabulatedResult {
 
 	@Exported(visibility=9)
 	public String getName() {
-		return feature.getName();
+		return statement.getName();
 	}
 	
 	
 	@Override
 	public Collection<ScenarioResult> getChildren() {
+		loadScenarios();
 		return scenarioResults;
 	}
 
 	@Exported(visibility=9)
 	public Collection<ScenarioResult> getScenarioResults() {
+		loadScenarios();
 		return scenarioResults;
 	}
 
@@ -108,6 +156,7 @@ public class FeatureResult extends MetaTabulatedResult {
 
 	@Override
 	public boolean hasChildren() {
+		loadScenarios();
 		return !scenarioResults.isEmpty();
 	}
 
@@ -117,8 +166,9 @@ public class FeatureResult extends MetaTabulatedResult {
 		return owner;
 	}
 
-	public void setOwner(Run<?, ?> owner) {
+	public synchronized void setOwner(Run<?, ?> owner) {
 	   this.owner = owner;
+	   // any scenarios that are yet to be loaded will have their owner set when they are.
 	   for (ScenarioResult sr : scenarioResults) {
 	   	sr.setOwner(owner);
 	   }
@@ -126,7 +176,7 @@ public class FeatureResult extends MetaTabulatedResult {
 	
 	@Override
 	public TestObject getParent() {
-		return parent;
+		return parent == null ? null : parent.getParentOf(this);
 	}
 
 
@@ -137,12 +187,13 @@ public class FeatureResult extends MetaTabulatedResult {
 
 	@Override
 	public TestResult findCorrespondingResult(String id) {
-		return scenariosByID.get(id);
+		return getScenariosByID().get(id);
 	}
 
 
 	@Override
 	public Collection<ScenarioResult> getFailedTests() {
+		loadScenarios();
 		return failedScenarioResults;
 	}
 	
@@ -151,26 +202,155 @@ public class FeatureResult extends MetaTabulatedResult {
 		return uri;
 	}
 	
+	/**
+	 * @deprecated the gherkin model is no longer kept, this recreates the parts that are shown in the report. Use
+	 *             {@link #getStatement()} instead.
+	 */
+	@Deprecated
 	public Feature getFeature() {
-		return feature;
+		return statement.toFeature();
+	}
+
+
+	Statement getStatement() {
+		return statement;
 	}
 	
 	void addScenarioResult(ScenarioResult scenarioResult) {
 		scenarioResults.add(scenarioResult);
 		scenarioResult.setParent(this);
+		// cucumber reports the background again for every scenario, but it is the same each time.
+		BackgroundResult backgroundResult = scenarioResult.getBackgroundResult();
+		if (backgroundResult != null && (background == null || !backgroundResult.shareDefinition(background))) {
+			background = backgroundResult;
+		}
 	}
 	
 	@Override
-	public synchronized String getSafeName() {
-		if (safeName != null) {
-			return safeName;
+	public String getSafeName() {
+		if (safeName == null) {
+			parent.nameFeatures();
 		}
-		safeName = uniquifyName(parent.getChildren(), safe(feature.getId()));
 		return safeName;
 	}
 
+	/** The safe name of this feature if it has been named, without naming it. */
+	String getAssignedSafeName() {
+		return safeName;
+	}
+
+	/**
+	 * Gives this feature the next unique safe name for its id, if it has not already been named.
+	 */
+	void assignSafeName(SafeNames names) {
+		if (safeName == null) {
+			safeName = names.uniquify(safe(statement.getId()));
+		}
+	}
+
+	/**
+	 * Names the scenarios that have not been named yet, in order.
+	 */
+	synchronized void nameScenarios() {
+		if (scenarioNames == null) {
+			scenarioNames = new SafeNames();
+		}
+		for (; namedScenarios < scenarioResults.size(); namedScenarios++) {
+			scenarioResults.get(namedScenarios).assignSafeName(scenarioNames);
+		}
+	}
+
+	/**
+	 * Forgets the safe names of this feature and its scenarios so they are named again, after the features of the
+	 * result that this one has been moved to.
+	 */
+	synchronized void forgetSafeNames() {
+		safeName = null;
+		scenarioNames = null;
+		namedScenarios = 0;
+		for (ScenarioResult sr : scenarioResults) {
+			sr.forgetSafeName();
+		}
+		scenariosByID = null;
+	}
+
+	private synchronized Map<String, ScenarioResult> getScenariosByID() {
+		loadScenarios();
+		if (scenariosByID == null) {
+			scenariosByID = new TreeMap<String, ScenarioResult>();
+			for (ScenarioResult sr : scenarioResults) {
+				scenariosByID.put(sr.getSafeName(), sr);
+			}
+		}
+		return scenariosByID;
+	}
+
+	/**
+	 * Restores the state calculated by {@link #tally()} without reading the scenarios, which will be read from the
+	 * given file by {@link CucumberResultCodec} when they are first needed.
+	 */
+	void restoreTally(File scenarioFile, int passCount, int failCount, int skipCount, float duration) {
+		this.scenarioFile = scenarioFile;
+		this.passCount = passCount;
+		this.failCount = failCount;
+		this.skipCount = skipCount;
+		this.duration = duration;
+	}
+
+	/** Whether the scenarios are in memory, rather than waiting to be read when they are first needed. */
+	synchronized boolean isScenariosLoaded() {
+		return scenarioFile == null;
+	}
+
+	private synchronized void loadScenarios() {
+		if (scenarioFile == null) {
+			return;
+		}
+		File file = scenarioFile;
+		scenarioFile = null;
+		try {
+			// the scenarios are restored as they were tallied.
+			CucumberResultCodec.readScenarios(file, this);
+			if (owner != null) {
+				// the result was cached with only the size of its summary
+				CucumberResultCache.getInstance().grow(owner.getExternalizableId(),
+				                                       file.length() * CucumberResultCodec.EXPANSION);
+			}
+		}
+		catch (IOException ex) {
+			LOGGER.log(Level.WARNING, "Failed to load the scenarios of " + getName() + " from " + file, ex);
+			// the counts would contradict the scenarios that were read, if any were
+			scenariosBroken = true;
+			scenarioResults.clear();
+			passCount = 0;
+			failCount = 0;
+			skipCount = 0;
+			duration = 0;
+		}
+		scenariosByID = new TreeMap<String, ScenarioResult>();
+		failedScenarioResults = new ArrayList<ScenarioResult>();
+		for (ScenarioResult sr : scenarioResults) {
+			scenariosByID.put(sr.getSafeName(), sr);
+			if (!sr.isPassed()) {
+				failedScenarioResults.add(sr);
+			}
+			sr.setOwner(owner);
+		}
+	}
+
+	/**
+	 * Gets the scenario at the given position in this feature.
+	 *
+	 * @return the scenario, or <code>null</code> if the scenarios could not be read.
+	 */
+	ScenarioResult getScenarioResult(int index) {
+		loadScenarios();
+		return scenariosBroken ? null : scenarioResults.get(index);
+	}
+
 	@Override
 	public void tally() {
+		loadScenarios();
 		if (scenariosByID == null) {
 			scenariosByID = new TreeMap<String, ScenarioResult>();
 		}
@@ -232,7 +412,7 @@ public class FeatureResult extends MetaTabulatedResult {
 		if (token.equals(getId())) {
 			return this;
 		}
-		ScenarioResult result = scenariosByID.get(token);
+		ScenarioResult result = getScenariosByID().get(token);
 		if (result != null) {
 			return result;
 		}
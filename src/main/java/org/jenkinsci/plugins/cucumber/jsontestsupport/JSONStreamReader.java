@@ -0,0 +1,705 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A pull parser for UTF-8 encoded JSON that reads from a {@link FileChannel} in small chunks, so that only the
+ * value currently being read is held in memory.
+ * <p>
+ * Cucumber does not write the keys of an object in any particular order (a features <code>elements</code> may
+ * well come before its <code>name</code>) so the reader supports {@link #mark() marking} the position of a value
+ * and later {@link #reset(Mark) returning} to it.
+ *
+ * @author James Nord
+ */
+final class JSONStreamReader implements Closeable {
+
+	enum Token {
+		BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/* the scopes that can be on the stack */
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	/** position in the channel of the first byte in the buffer. */
+	private long bufferOffset;
+
+	private int[] stack = new int[32];
+	private int stackSize;
+
+	/** The token that has been peeked but not consumed, or <code>null</code>. */
+	private Token peeked;
+
+	/** <code>true</code> if the last {@link #read()} hit the end of the channel. */
+	private boolean eof;
+
+	private final StringBuilder sb = new StringBuilder();
+
+
+	JSONStreamReader(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.bufferOffset = channel.position();
+		buffer.limit(0);
+		stack[stackSize++] = EMPTY_DOCUMENT;
+		skipByteOrderMark();
+	}
+
+
+	Token peek() throws IOException {
+		if (peeked != null) {
+			return peeked;
+		}
+		int scope = stack[stackSize - 1];
+		switch (scope) {
+			case EMPTY_ARRAY:
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				if (nextNonWhitespace() == ']') {
+					return peeked = Token.END_ARRAY;
+				}
+				unread();
+				return peeked = peekValue();
+			case NONEMPTY_ARRAY: {
+				int c = nextNonWhitespace();
+				if (c == ']') {
+					return peeked = Token.END_ARRAY;
+				}
+				if (c != ',') {
+					throw syntaxError("Expected ',' or ']'", c);
+				}
+				return peeked = peekValue();
+			}
+			case EMPTY_OBJECT:
+			case NONEMPTY_OBJECT: {
+				stack[stackSize - 1] = DANGLING_NAME;
+				int c = nextNonWhitespace();
+				if (scope == NONEMPTY_OBJECT) {
+					if (c == '}') {
+						return peeked = Token.END_OBJECT;
+					}
+					if (c != ',') {
+						throw syntaxError("Expected ',' or '}'", c);
+					}
+					c = nextNonWhitespace();
+				}
+				else if (c == '}') {
+					return peeked = Token.END_OBJECT;
+				}
+				if (c != '"') {
+					throw syntaxError("Expected a name", c);
+				}
+				return peeked = Token.NAME;
+			}
+			case DANGLING_NAME: {
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				int c = nextNonWhitespace();
+				if (c != ':') {
+					throw syntaxError("Expected ':'", c);
+				}
+				return peeked = peekValue();
+			}
+			case EMPTY_DOCUMENT:
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				return peeked = peekValue();
+			default: {
+				// NONEMPTY_DOCUMENT
+				int c = nextNonWhitespace();
+				if (c == -1) {
+					return peeked = Token.END_DOCUMENT;
+				}
+				throw syntaxError("Expected the end of the document", c);
+			}
+		}
+	}
+
+
+	void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+
+
+	void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		stackSize--;
+	}
+
+
+	void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+
+
+	void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		stackSize--;
+	}
+
+
+	/**
+	 * @return <code>true</code> if the current array or object has another element.
+	 */
+	boolean hasNext() throws IOException {
+		Token t = peek();
+		return t != Token.END_ARRAY && t != Token.END_OBJECT && t != Token.END_DOCUMENT;
+	}
+
+
+	String nextName() throws IOException {
+		expect(Token.NAME);
+		return readString();
+	}
+
+
+	/**
+	 * Reads the next string value. Numbers are returned as their literal text and <code>null</code> as
+	 * <code>null</code>.
+	 */
+	String nextString() throws IOException {
+		Token t = peek();
+		if (t == Token.NULL) {
+			nextNull();
+			return null;
+		}
+		if (t == Token.NUMBER) {
+			peeked = null;
+			return readLiteral();
+		}
+		expect(Token.STRING);
+		return readString();
+	}
+
+
+	/**
+	 * Writes the next string value to <code>out</code> as UTF-8 without building it in memory, for values such as
+	 * embedded items that can be many megabytes. A <code>null</code> value writes nothing.
+	 */
+	void nextString(OutputStream out) throws IOException {
+		if (peek() == Token.NULL) {
+			nextNull();
+			return;
+		}
+		expect(Token.STRING);
+		char highSurrogate = 0;
+		while (true) {
+			if (!buffer.hasRemaining() && !fill()) {
+				throw syntaxError("Unterminated string");
+			}
+			byte[] array = buffer.array();
+			int start = buffer.position();
+			int p = start;
+			int limit = buffer.limit();
+			while (p < limit) {
+				byte b = array[p];
+				if (b == '"') {
+					out.write(array, start, p - start);
+					buffer.position(p + 1);
+					return;
+				}
+				if (b == '\\') {
+					out.write(array, start, p - start);
+					buffer.position(p + 1);
+					char c = readEscape();
+					if (Character.isHighSurrogate(c)) {
+						highSurrogate = c;
+					}
+					else if (Character.isLowSurrogate(c) && highSurrogate != 0) {
+						writeUTF8(out, Character.toCodePoint(highSurrogate, c));
+						highSurrogate = 0;
+					}
+					else {
+						writeUTF8(out, c);
+					}
+					// the escape may have refilled the buffer
+					array = buffer.array();
+					start = p = buffer.position();
+					limit = buffer.limit();
+				}
+				else {
+					p++;
+				}
+			}
+			out.write(array, start, p - start);
+			buffer.position(p);
+		}
+	}
+
+
+	/**
+	 * Reads the next number, which may be absent (<code>null</code>).
+	 */
+	Long nextLong() throws IOException {
+		Token t = peek();
+		if (t == Token.NULL) {
+			nextNull();
+			return null;
+		}
+		String s;
+		if (t == Token.STRING) {
+			peeked = null;
+			s = readString();
+		}
+		else {
+			expect(Token.NUMBER);
+			s = readLiteral();
+		}
+		try {
+			return Long.valueOf(s);
+		}
+		catch (NumberFormatException ex) {
+			try {
+				// fractions and exponents
+				return Long.valueOf((long) Double.parseDouble(s));
+			}
+			catch (NumberFormatException ex2) {
+				throw syntaxError("Expected a number but was '" + s + "'");
+			}
+		}
+	}
+
+
+	/**
+	 * Reads the next number, which may be absent (<code>null</code>).
+	 */
+	Integer nextInteger() throws IOException {
+		Long l = nextLong();
+		return l == null ? null : Integer.valueOf(l.intValue());
+	}
+
+
+	boolean nextBoolean() throws IOException {
+		expect(Token.BOOLEAN);
+		String s = readLiteral();
+		if ("true".equals(s)) {
+			return true;
+		}
+		if ("false".equals(s)) {
+			return false;
+		}
+		throw syntaxError("Expected a boolean but was '" + s + "'");
+	}
+
+
+	void nextNull() throws IOException {
+		expect(Token.NULL);
+		String s = readLiteral();
+		if (!"null".equals(s)) {
+			throw syntaxError("Expected null but was '" + s + "'");
+		}
+	}
+
+
+	/**
+	 * Skips the next value (including any nested arrays or objects) without decoding it.
+	 */
+	void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			switch (peek()) {
+				case BEGIN_ARRAY:
+					beginArray();
+					depth++;
+					break;
+				case BEGIN_OBJECT:
+					beginObject();
+					depth++;
+					break;
+				case END_ARRAY:
+					endArray();
+					depth--;
+					break;
+				case END_OBJECT:
+					endObject();
+					depth--;
+					break;
+				case NAME:
+				case STRING:
+					peeked = null;
+					skipString();
+					break;
+				case END_DOCUMENT:
+					throw syntaxError("Unexpected end of document");
+				default:
+					peeked = null;
+					readLiteral();
+					break;
+			}
+		} while (depth != 0);
+	}
+
+
+	/**
+	 * Marks the current position so that the reader can be {@link #reset(Mark) reset} to it after reading
+	 * further.
+	 */
+	Mark mark() {
+		return new Mark(bufferOffset + buffer.position(), Arrays.copyOf(stack, stackSize), peeked);
+	}
+
+
+	/**
+	 * Repositions the reader to a previously obtained {@link Mark}.
+	 */
+	void reset(Mark mark) throws IOException {
+		long pos = mark.position;
+		if (pos >= bufferOffset && pos <= bufferOffset + buffer.limit()) {
+			// still in the buffer
+			buffer.position((int) (pos - bufferOffset));
+		}
+		else {
+			channel.position(pos);
+			bufferOffset = pos;
+			buffer.clear();
+			buffer.limit(0);
+		}
+		if (stack.length < mark.stack.length) {
+			stack = new int[mark.stack.length];
+		}
+		System.arraycopy(mark.stack, 0, stack, 0, mark.stack.length);
+		stackSize = mark.stack.length;
+		peeked = mark.peeked;
+		eof = false;
+	}
+
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+
+	/**
+	 * A position in the document that can be returned to.
+	 */
+	static final class Mark {
+		private final long position;
+		private final int[] stack;
+		private final Token peeked;
+
+
+		private Mark(long position, int[] stack, Token peeked) {
+			this.position = position;
+			this.stack = stack;
+			this.peeked = peeked;
+		}
+	}
+
+
+	private void expect(Token expected) throws IOException {
+		Token t = peek();
+		if (t != expected) {
+			throw syntaxError("Expected " + expected + " but was " + t);
+		}
+		peeked = null;
+	}
+
+
+	private void push(int scope) {
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		}
+		stack[stackSize++] = scope;
+	}
+
+
+	private Token peekValue() throws IOException {
+		int c = nextNonWhitespace();
+		switch (c) {
+			case '{':
+				return Token.BEGIN_OBJECT;
+			case '[':
+				return Token.BEGIN_ARRAY;
+			case '"':
+				return Token.STRING;
+			case 't':
+			case 'f':
+				unread();
+				return Token.BOOLEAN;
+			case 'n':
+				unread();
+				return Token.NULL;
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					unread();
+					return Token.NUMBER;
+				}
+				throw syntaxError("Expected a value", c);
+		}
+	}
+
+
+	/**
+	 * Reads the body of a string whose opening quote has already been consumed.
+	 */
+	private String readString() throws IOException {
+		sb.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				return sb.toString();
+			}
+			else if (c == '\\') {
+				sb.append(readEscape());
+			}
+			else if (c < 0x80) {
+				if (c == -1) {
+					throw syntaxError("Unterminated string");
+				}
+				sb.append((char) c);
+			}
+			else {
+				sb.appendCodePoint(readMultiByte(c));
+			}
+		}
+	}
+
+
+	/**
+	 * Skips the body of a string whose opening quote has already been consumed. Embedded items can be many
+	 * megabytes so this works directly on the buffer.
+	 */
+	private void skipString() throws IOException {
+		while (true) {
+			if (!buffer.hasRemaining() && !fill()) {
+				throw syntaxError("Unterminated string");
+			}
+			byte[] array = buffer.array();
+			int p = buffer.position();
+			int limit = buffer.limit();
+			while (p < limit) {
+				byte b = array[p++];
+				if (b == '"') {
+					buffer.position(p);
+					return;
+				}
+				if (b == '\\') {
+					buffer.position(p);
+					readEscape();
+					p = buffer.position();
+					limit = buffer.limit();
+					array = buffer.array();
+				}
+			}
+			buffer.position(p);
+		}
+	}
+
+
+	private char readEscape() throws IOException {
+		int c = read();
+		switch (c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u': {
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					int h = Character.digit(read(), 16);
+					if (h == -1) {
+						throw syntaxError("Invalid unicode escape");
+					}
+					value = (value << 4) + h;
+				}
+				return (char) value;
+			}
+			case -1:
+				throw syntaxError("Unterminated escape sequence");
+			default:
+				// '"', '\\', '/' and anything else that is needlessly escaped
+				return (char) c;
+		}
+	}
+
+
+	private static void writeUTF8(OutputStream out, int cp) throws IOException {
+		if (cp < 0x80) {
+			out.write(cp);
+		}
+		else if (cp < 0x800) {
+			out.write(0xC0 | (cp >> 6));
+			out.write(0x80 | (cp & 0x3F));
+		}
+		else if (cp < 0x10000) {
+			out.write(0xE0 | (cp >> 12));
+			out.write(0x80 | ((cp >> 6) & 0x3F));
+			out.write(0x80 | (cp & 0x3F));
+		}
+		else {
+			out.write(0xF0 | (cp >> 18));
+			out.write(0x80 | ((cp >> 12) & 0x3F));
+			out.write(0x80 | ((cp >> 6) & 0x3F));
+			out.write(0x80 | (cp & 0x3F));
+		}
+	}
+
+
+	private int readMultiByte(int lead) throws IOException {
+		int count;
+		int cp;
+		if ((lead & 0xE0) == 0xC0) {
+			count = 1;
+			cp = lead & 0x1F;
+		}
+		else if ((lead & 0xF0) == 0xE0) {
+			count = 2;
+			cp = lead & 0x0F;
+		}
+		else if ((lead & 0xF8) == 0xF0) {
+			count = 3;
+			cp = lead & 0x07;
+		}
+		else {
+			throw syntaxError("Invalid UTF-8 sequence");
+		}
+		for (int i = 0; i < count; i++) {
+			int c = read();
+			if ((c & 0xC0) != 0x80) {
+				throw syntaxError("Invalid UTF-8 sequence");
+			}
+			cp = (cp << 6) | (c & 0x3F);
+		}
+		return cp;
+	}
+
+
+	/**
+	 * Reads an unquoted literal (number, boolean or null).
+	 */
+	private String readLiteral() throws IOException {
+		sb.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == -1) {
+				break;
+			}
+			if (c == ',' || c == '}' || c == ']' || c == ':' || isWhitespace(c)) {
+				unread();
+				break;
+			}
+			sb.append((char) c);
+		}
+		return sb.toString();
+	}
+
+
+	private int nextNonWhitespace() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (isWhitespace(c));
+		return c;
+	}
+
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+	}
+
+
+	private void skipByteOrderMark() throws IOException {
+		if (read() == 0xEF) {
+			if (read() == 0xBB && read() == 0xBF) {
+				return;
+			}
+			throw syntaxError("Invalid byte order mark");
+		}
+		unread();
+	}
+
+
+	/**
+	 * @return the next unsigned byte or -1 at the end of the channel.
+	 */
+	private int read() throws IOException {
+		if (!buffer.hasRemaining() && !fill()) {
+			eof = true;
+			return -1;
+		}
+		eof = false;
+		return buffer.get() & 0xFF;
+	}
+
+
+	/**
+	 * Steps back over the byte just {@link #read()}.
+	 */
+	private void unread() {
+		if (!eof) {
+			buffer.position(buffer.position() - 1);
+		}
+	}
+
+
+	private long position() {
+		return bufferOffset + buffer.position();
+	}
+
+
+	private boolean fill() throws IOException {
+		bufferOffset += buffer.limit();
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer);
+		} while (read == 0);
+		buffer.flip();
+		return read != -1;
+	}
+
+
+	private CucumberModelException syntaxError(String message, int c) {
+		if (c == -1) {
+			return syntaxError(message + " but reached the end of the document");
+		}
+		return syntaxError(message + " but was '" + (char) c + "'");
+	}
+
+
+	private CucumberModelException syntaxError(String message) {
+		return new CucumberModelException("Malformed JSON: " + message + " at offset " + position());
+	}
+}
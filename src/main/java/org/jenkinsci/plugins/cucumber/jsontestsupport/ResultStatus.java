@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+/**
+ * The status of a step or hook as reported by Cucumber.
+ *
+ * @author James Nord
+ */
+enum ResultStatus {
+
+	PASSED(CucumberUtils.PASSED_TEST_STRING),
+	FAILED(CucumberUtils.FAILED_TEST_STRING),
+	SKIPPED(CucumberUtils.SKIPPED_TEST_STRING),
+	PENDING(CucumberUtils.PENDING_TEST_STRING),
+	UNDEFINED(CucumberUtils.UNDEFINED_TEST_STRING),
+	/** A status this version of the plugin does not know about, it is neither passed, failed nor skipped. */
+	UNKNOWN(null);
+
+	private final String status;
+
+
+	private ResultStatus(String status) {
+		this.status = status;
+	}
+
+
+	/**
+	 * Gets the status for the string used by Cucumber.
+	 *
+	 * @param status the status as reported by Cucumber, possibly <code>null</code>.
+	 * @return the matching status, or {@link #UNKNOWN} if it is not recognised.
+	 */
+	static ResultStatus fromString(String status) {
+		for (ResultStatus rs : values()) {
+			if (rs.status != null && rs.status.equals(status)) {
+				return rs;
+			}
+		}
+		return UNKNOWN;
+	}
+
+
+	/** The status as reported by Cucumber, <code>null</code> for {@link #UNKNOWN}. */
+	String getStatus() {
+		return status;
+	}
+
+
+	boolean isFailed() {
+		return this == FAILED || this == UNDEFINED;
+	}
+
+
+	boolean isSkipped() {
+		return this == SKIPPED || this == PENDING;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Makes the safe names of the children of a result unique as they are named in order, the same way as
+ * {@link hudson.tasks.test.TestObject#uniquifyName(java.util.Collection, String) uniquifyName}: the first child with
+ * a name keeps it, the second has <code>_2</code> appended, the third <code>_3</code> and so on. Rather than
+ * comparing each child with all of its siblings this counts the children with each name, so naming all of the
+ * children takes linear time. Not thread safe.
+ *
+ * @author James Nord
+ */
+final class SafeNames {
+
+	private final Map<String, Integer> counts;
+
+
+	SafeNames() {
+		counts = new HashMap<String, Integer>();
+	}
+
+
+	/** A copy of the given names, which can go on naming children without changing the original. */
+	SafeNames(SafeNames names) {
+		counts = new HashMap<String, Integer>(names.counts);
+	}
+
+
+	/**
+	 * Gets the unique name of the next child with the given name.
+	 */
+	String uniquify(String name) {
+		Integer count = counts.get(name);
+		int n = count == null ? 1 : count.intValue() + 1;
+		counts.put(name, Integer.valueOf(n));
+		return n == 1 ? name : name + '_' + n;
+	}
+}
@@ -0,0 +1,924 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import hudson.tasks.junit.CaseResult.Status;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberDurationAction.DurationRegression;
+import org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberFlakinessAction.FlakyScenario;
+
+/**
+ * A job level index of how each scenario did in the latest builds, so that the status, failed since and age of a
+ * scenario can be worked out from the builds before it without loading their results.
+ * <p>
+ * The history is held in <code>cucumber-history.bin</code> in the jobs root directory. A record of each build is
+ * appended each time the build publishes its result, replacing any earlier one, holding the state, duration and
+ * failed since build of each of its scenarios by {@link ScenarioResult#getId() id}. Each id is written once, the
+ * first time it is seen, and thereafter by its index. Deleting a build appends a record that removes it.
+ * <p>
+ * Only the latest 200 builds are kept, which can be set with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.ScenarioHistory.builds</code> system property but is never
+ * fewer than the window below needs. The history then starts at the oldest of them, and older builds drop out of it
+ * as newer ones are recorded. Once the file holds as many builds that have been removed or have dropped out as it
+ * keeps, it is rewritten with just those it keeps.
+ * <p>
+ * Builds from before the start of the history are not in it, looking up a scenario that is not in the history loads
+ * the result of the build before as before.
+ * <p>
+ * The history also keeps how often each scenario has flipped between passing and failing, that is how many of its
+ * records would have a status of {@link ScenarioResult.Status#REGRESSION} or {@link ScenarioResult.Status#FIXED},
+ * over its last few records so that the flakiest scenarios of a job can be found. Likewise it keeps a
+ * {@link DurationSketch} of the durations of those records before the latest one, so that a scenario that has become
+ * much slower can be found. The number of records defaults to 30 and can be set with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.ScenarioHistory.window</code> system property.
+ *
+ * @author James Nord
+ */
+final class ScenarioHistory {
+
+	private static final Logger LOGGER = Logger.getLogger(ScenarioHistory.class.getName());
+
+	static final String FILE = "cucumber-history.bin";
+
+	/** "CUKH" */
+	static final int MAGIC = 0x43554B48;
+
+	static final int VERSION = 1;
+
+	/** The start of a history that has not been started, before which all builds are. */
+	static final int NOT_STARTED = Integer.MAX_VALUE;
+
+	static final int WINDOW = Math.max(2, Integer.getInteger(ScenarioHistory.class.getName() + ".window", 30).intValue());
+
+	static final int BUILDS = Integer.getInteger(ScenarioHistory.class.getName() + ".builds", 200).intValue();
+
+	private static final int FAILED = 1;
+	private static final int SKIPPED = 2;
+
+	/** guarded by the class, soft so that the histories of jobs that are not being looked at can be dropped. */
+	private static final Map<File, SoftReference<ScenarioHistory>> HISTORIES =
+	      new HashMap<File, SoftReference<ScenarioHistory>>();
+
+	private final File file;
+	private final int window;
+	/** the number of the latest builds that are kept. */
+	private final int retain;
+
+	/* guarded by this */
+	private boolean loaded;
+	private int start = NOT_STARTED;
+	/** the number of builds in the file that have been removed or have dropped out of the history. */
+	private int dropped;
+	private final List<String> ids = new ArrayList<String>();
+	private final Map<String, Scenario> scenarios = new HashMap<String, Scenario>();
+	private final NavigableSet<Integer> builds = new TreeSet<Integer>();
+
+
+	ScenarioHistory(File file) {
+		this(file, WINDOW, BUILDS);
+	}
+
+
+	/**
+	 * @param window the number of the latest records of a scenario that its flakiness and durations are worked out
+	 *           from.
+	 * @param builds the number of the latest builds to keep.
+	 */
+	ScenarioHistory(File file, int window, int builds) {
+		this.file = file;
+		this.window = window;
+		// the durations are of the window of records before the latest one
+		this.retain = Math.max(window + 1, builds);
+	}
+
+
+	/**
+	 * Gets the history of a job, which is read when it is first needed.
+	 */
+	static ScenarioHistory of(Job<?, ?> job) {
+		File file = new File(job.getRootDir(), FILE);
+		synchronized (ScenarioHistory.class) {
+			SoftReference<ScenarioHistory> ref = HISTORIES.get(file);
+			ScenarioHistory history = ref == null ? null : ref.get();
+			if (history == null) {
+				history = new ScenarioHistory(file);
+				HISTORIES.put(file, new SoftReference<ScenarioHistory>(history));
+			}
+			return history;
+		}
+	}
+
+
+	/**
+	 * Gets the URL of a scenario in a build, relative to the job.
+	 */
+	static String getUrl(int build, String id) {
+		// the id starts with that of the whole result, which is not part of the URL
+		int slash = id.indexOf('/');
+		return build + "/cucumberTestReport/" + (slash < 0 ? id : id.substring(slash + 1)) + "/";
+	}
+
+
+	/**
+	 * The number of the first build in the history. Builds before it that have a result were not recorded or have
+	 * dropped out of it, if there were none this is 0.
+	 */
+	synchronized int getStart() {
+		load();
+		return start;
+	}
+
+
+	/**
+	 * Gets the record of a scenario from the latest build before the given one that it is in.
+	 * 
+	 * @return the record or <code>null</code> if the scenario is not in any earlier build in the history.
+	 */
+	synchronized Record getPrevious(String id, int build) {
+		load();
+		Scenario scenario = scenarios.get(id);
+		if (scenario == null) {
+			return null;
+		}
+		int i = scenario.indexBefore(build);
+		return i < 0 ? null : scenario.get(i);
+	}
+
+
+	/**
+	 * Counts the records of a scenario in the builds from one to another, inclusive.
+	 */
+	synchronized int countRecords(String id, int from, int to) {
+		load();
+		Scenario scenario = scenarios.get(id);
+		if (scenario == null || from > to) {
+			return 0;
+		}
+		return scenario.indexAtOrBefore(to) - scenario.indexBefore(from);
+	}
+
+
+	/**
+	 * Gets a page of the records of a scenario in the builds from one to another, inclusive, latest first.
+	 *
+	 * @param offset the number of the latest records in the range to skip.
+	 * @param limit the most records to return.
+	 */
+	synchronized List<Record> getRecords(String id, int from, int to, int offset, int limit) {
+		load();
+		Scenario scenario = scenarios.get(id);
+		if (scenario == null || from > to) {
+			return Collections.emptyList();
+		}
+		int first = scenario.indexBefore(from) + 1;
+		List<Record> records = new ArrayList<Record>();
+		for (int i = scenario.indexAtOrBefore(to) - offset; i >= first && records.size() < limit; i--) {
+			records.add(scenario.get(i));
+		}
+		return records;
+	}
+
+
+	/**
+	 * Gets the scenarios that flip between passing and failing most often, most flaky first. Only scenarios that have
+	 * flipped and that were run in one of the last few builds are included, so a scenario that has been removed drops
+	 * out, as does one that has settled down once its flips have left the window.
+	 *
+	 * @param limit the most scenarios to return.
+	 */
+	synchronized List<FlakyScenario> getFlakiest(int limit) {
+		load();
+		if (limit <= 0 || builds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		// the oldest of the last builds that a scenario needs to have been run in to be current
+		int since = builds.last().intValue();
+		Iterator<Integer> it = builds.descendingIterator();
+		for (int i = 0; i < window && it.hasNext(); i++) {
+			since = it.next().intValue();
+		}
+		// the least flaky of those found so far is at the head so it can be dropped when a flakier one is found
+		PriorityQueue<FlakyScenario> flakiest =
+		      new PriorityQueue<FlakyScenario>(limit + 1, FlakyScenario.LEAST_FLAKY_FIRST);
+		for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+			Scenario scenario = entry.getValue();
+			if (scenario.flips == 0 || scenario.builds[scenario.size - 1] < since) {
+				continue;
+			}
+			flakiest.add(new FlakyScenario(entry.getKey(), scenario.flips, Math.min(scenario.size, window),
+			                               scenario.get(scenario.size - 1)));
+			if (flakiest.size() > limit) {
+				flakiest.poll();
+			}
+		}
+		List<FlakyScenario> sorted = new ArrayList<FlakyScenario>(flakiest);
+		Collections.sort(sorted, Collections.reverseOrder(FlakyScenario.LEAST_FLAKY_FIRST));
+		return sorted;
+	}
+
+
+	/**
+	 * Gets the scenarios of the latest build that took longer than their 95th percentile duration in the builds before
+	 * by more than the given factor, those that slowed down the most first. Scenarios that were skipped, or that have
+	 * too few earlier durations to go by, are left out.
+	 *
+	 * @param factor how many times longer than the 95th percentile a scenario must take.
+	 * @param minDurations the fewest earlier durations that a scenario needs.
+	 */
+	synchronized List<DurationRegression> getDurationRegressions(float factor, int minDurations) {
+		load();
+		if (builds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		int latest = builds.last().intValue();
+		List<DurationRegression> regressions = new ArrayList<DurationRegression>();
+		for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+			Scenario scenario = entry.getValue();
+			int last = scenario.size - 1;
+			if (last < 0 || scenario.builds[last] != latest || (scenario.flags[last] & SKIPPED) != 0
+			    || scenario.sketch.getCount() < Math.max(1, minDurations)) {
+				continue;
+			}
+			float p95 = scenario.sketch.getQuantile(0.95);
+			// durations too small to measure would make any change look like a regression
+			if (scenario.durations[last] > factor * Math.max(p95, DurationSketch.MIN_DURATION)) {
+				regressions.add(new DurationRegression(entry.getKey(), latest, scenario.durations[last],
+				                                       scenario.sketch.getQuantile(0.5), p95));
+			}
+		}
+		Collections.sort(regressions, DurationRegression.MOST_SLOWED_FIRST);
+		return regressions;
+	}
+
+
+	/**
+	 * Gets the durations of the scenarios of each feature in the latest build over the builds before it, by the id of
+	 * the feature.
+	 */
+	synchronized SortedMap<String, DurationSketch> getFeatureDurations() {
+		load();
+		SortedMap<String, DurationSketch> features = new TreeMap<String, DurationSketch>();
+		if (builds.isEmpty()) {
+			return features;
+		}
+		int latest = builds.last().intValue();
+		for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+			Scenario scenario = entry.getValue();
+			if (scenario.size == 0 || scenario.builds[scenario.size - 1] != latest) {
+				continue;
+			}
+			String id = entry.getKey();
+			String feature = id.substring(0, Math.max(0, id.lastIndexOf('/')));
+			DurationSketch sketch = features.get(feature);
+			if (sketch == null) {
+				features.put(feature, new DurationSketch(scenario.sketch));
+			}
+			else {
+				sketch.merge(scenario.sketch);
+			}
+		}
+		return features;
+	}
+
+
+	/**
+	 * Records the scenarios of a build that has published its result, starting the history if need be.
+	 */
+	void record(Run<?, ?> run, CucumberTestResult result) throws IOException {
+		synchronized (this) {
+			load();
+			if (start == NOT_STARTED) {
+				start = hasEarlierResult(run) ? run.getNumber() : 0;
+			}
+		}
+		record(run.getNumber(), result);
+	}
+
+
+	/**
+	 * Records the scenarios of a build, replacing any earlier record of it.
+	 */
+	synchronized void record(int build, CucumberTestResult result) throws IOException {
+		load();
+		if (start == NOT_STARTED) {
+			start = build;
+		}
+		if (builds.contains(Integer.valueOf(build))) {
+			remove(build);
+		}
+		List<String> buildIds = new ArrayList<String>();
+		List<Record> records = new ArrayList<Record>();
+		for (FeatureResult feature : result.getFeatures()) {
+			for (ScenarioResult scenario : feature.getChildren()) {
+				buildIds.add(scenario.getId());
+				records.add(Record.of(build, scenario));
+			}
+		}
+		try {
+			DataOutputStream out = openForAppend();
+			try {
+				out.writeInt(build);
+				out.writeInt(records.size());
+				for (int i = 0; i < records.size(); i++) {
+					Record record = records.get(i);
+					writeId(out, buildIds.get(i));
+					out.writeByte(record.getFlags());
+					out.writeFloat(record.getDuration());
+					out.writeInt(record.getFailedSince());
+				}
+			}
+			finally {
+				out.close();
+			}
+		}
+		catch (IOException ex) {
+			// the ids that were written may not have made it to disk, so read the history again when it is needed
+			clear();
+			loaded = false;
+			throw ex;
+		}
+		for (int i = 0; i < records.size(); i++) {
+			Record record = records.get(i);
+			getScenario(buildIds.get(i)).add(build, record.getFlags(), record.getDuration(), record.getFailedSince(),
+			                                 window);
+		}
+		builds.add(Integer.valueOf(build));
+		trim();
+		compact();
+	}
+
+
+	/**
+	 * Removes a deleted build from the history.
+	 */
+	synchronized void remove(int build) throws IOException {
+		load();
+		if (!builds.remove(Integer.valueOf(build))) {
+			return;
+		}
+		for (Scenario scenario : scenarios.values()) {
+			scenario.remove(build, window);
+		}
+		DataOutputStream out = openForAppend();
+		try {
+			out.writeInt(-build);
+			out.writeInt(0);
+		}
+		finally {
+			out.close();
+		}
+		dropped++;
+		compact();
+	}
+
+
+	/**
+	 * Drops the oldest builds that are not needed, the history then starts at the oldest build that is left.
+	 */
+	private void trim() {
+		if (builds.size() <= retain) {
+			return;
+		}
+		while (builds.size() > retain) {
+			builds.pollFirst();
+			dropped++;
+		}
+		int first = builds.first().intValue();
+		for (Iterator<Scenario> it = scenarios.values().iterator(); it.hasNext();) {
+			Scenario scenario = it.next();
+			scenario.removeBefore(first, window);
+			if (scenario.size == 0) {
+				// no longer run, if it is run again its id is written again
+				it.remove();
+			}
+		}
+		start = Math.max(start, first);
+	}
+
+
+	/**
+	 * Rewrites the file once it holds as many builds that are no longer in the history as are.
+	 */
+	private void compact() {
+		if (dropped < retain) {
+			return;
+		}
+		try {
+			rewrite();
+		}
+		catch (IOException ex) {
+			// the file is left as it was, and is read the same
+			LOGGER.log(Level.WARNING, "Failed to rewrite " + file, ex);
+		}
+	}
+
+
+	/**
+	 * Whether any build before the given one has a Cucumber result. The builds are loaded but not their results.
+	 */
+	private static boolean hasEarlierResult(Run<?, ?> run) {
+		for (Run<?, ?> b = run.getPreviousBuild(); b != null; b = b.getPreviousBuild()) {
+			if (b.getAction(CucumberTestResultAction.class) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	private Scenario getScenario(String id) {
+		Scenario scenario = scenarios.get(id);
+		if (scenario == null) {
+			scenario = new Scenario();
+			scenarios.put(id, scenario);
+		}
+		return scenario;
+	}
+
+
+	/**
+	 * Writes the index of an id, along with the id itself if this is the first time it has been written.
+	 */
+	private void writeId(DataOutputStream out, String id) throws IOException {
+		Scenario scenario = getScenario(id);
+		if (scenario.index >= 0) {
+			out.writeInt(scenario.index);
+		}
+		else {
+			scenario.index = ids.size();
+			ids.add(id);
+			out.writeInt(scenario.index);
+			out.writeUTF(id);
+		}
+	}
+
+
+	private DataOutputStream openForAppend() throws IOException {
+		boolean exists = file.exists();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+		if (!exists) {
+			writeHeader(out);
+		}
+		return out;
+	}
+
+
+	private void writeHeader(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(start);
+	}
+
+
+	/**
+	 * Reads the history from disk, if it has not been read already. A build that was only partly written, when
+	 * Jenkins stopped for example, is left out, and any builds that were removed are dropped from the file.
+	 */
+	private void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		boolean rewrite = false;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+					throw new IOException("Not a Cucumber scenario history " + file);
+				}
+				start = in.readInt();
+				rewrite = !readBuilds(in) || dropped > 0;
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (FileNotFoundException ex) {
+			// not started yet
+			return;
+		}
+		catch (IOException ex) {
+			LOGGER.log(Level.WARNING, "Failed to read " + file + ", the history will be started again", ex);
+			clear();
+			if (!file.delete()) {
+				LOGGER.log(Level.WARNING, "Failed to delete {0}", file);
+			}
+			return;
+		}
+		if (rewrite) {
+			try {
+				rewrite();
+			}
+			catch (IOException ex) {
+				LOGGER.log(Level.WARNING, "Failed to rewrite " + file, ex);
+			}
+		}
+	}
+
+
+	private void clear() {
+		start = NOT_STARTED;
+		dropped = 0;
+		ids.clear();
+		scenarios.clear();
+		builds.clear();
+	}
+
+
+	/**
+	 * @return <code>false</code> if the file needs to be rewritten as it has removed or partly written builds.
+	 */
+	private boolean readBuilds(DataInputStream in) throws IOException {
+		boolean clean = true;
+		while (true) {
+			int build;
+			try {
+				build = in.readInt();
+			}
+			catch (EOFException ex) {
+				return clean;
+			}
+			try {
+				int count = in.readInt();
+				if (build < 0) {
+					if (builds.remove(Integer.valueOf(-build))) {
+						for (Scenario scenario : scenarios.values()) {
+							scenario.remove(-build, window);
+						}
+					}
+					clean = false;
+					continue;
+				}
+				// only added once all of the build has been read
+				int[] indexes = new int[count];
+				byte[] flags = new byte[count];
+				float[] durations = new float[count];
+				int[] failedSince = new int[count];
+				for (int i = 0; i < count; i++) {
+					int index = in.readInt();
+					if (index == ids.size()) {
+						ids.add(in.readUTF());
+					}
+					else if (index < 0 || index > ids.size()) {
+						throw new IOException("Corrupt Cucumber scenario history " + file);
+					}
+					indexes[i] = index;
+					flags[i] = in.readByte();
+					durations[i] = in.readFloat();
+					failedSince[i] = in.readInt();
+				}
+				for (int i = 0; i < count; i++) {
+					Scenario scenario = getScenario(ids.get(indexes[i]));
+					scenario.index = indexes[i];
+					scenario.add(build, flags[i], durations[i], failedSince[i], window);
+				}
+				builds.add(Integer.valueOf(build));
+				// so that a long history is not all held whilst it is read
+				trim();
+			}
+			catch (EOFException ex) {
+				return false;
+			}
+		}
+	}
+
+
+	/**
+	 * Writes the history afresh with just the builds that it holds.
+	 */
+	private void rewrite() throws IOException {
+		// the ids are numbered again in the order they are written
+		for (Scenario scenario : scenarios.values()) {
+			scenario.index = -1;
+		}
+		List<String> written = new ArrayList<String>();
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			writeHeader(out);
+			for (Integer build : builds) {
+				List<Map.Entry<String, Scenario>> inBuild = new ArrayList<Map.Entry<String, Scenario>>();
+				List<Integer> positions = new ArrayList<Integer>();
+				for (Map.Entry<String, Scenario> entry : scenarios.entrySet()) {
+					int i = entry.getValue().indexOf(build.intValue());
+					if (i >= 0) {
+						inBuild.add(entry);
+						positions.add(Integer.valueOf(i));
+					}
+				}
+				out.writeInt(build.intValue());
+				out.writeInt(inBuild.size());
+				for (int j = 0; j < inBuild.size(); j++) {
+					Scenario scenario = inBuild.get(j).getValue();
+					if (scenario.index < 0) {
+						scenario.index = written.size();
+						out.writeInt(scenario.index);
+						out.writeUTF(inBuild.get(j).getKey());
+						written.add(inBuild.get(j).getKey());
+					}
+					else {
+						out.writeInt(scenario.index);
+					}
+					int i = positions.get(j).intValue();
+					out.writeByte(scenario.flags[i]);
+					out.writeFloat(scenario.durations[i]);
+					out.writeInt(scenario.failedSince[i]);
+				}
+			}
+		}
+		finally {
+			out.close();
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		// scenarios that are no longer in any build are forgotten
+		ids.clear();
+		ids.addAll(written);
+		scenarios.keySet().retainAll(written);
+		dropped = 0;
+	}
+
+
+	/**
+	 * How a scenario did in one build.
+	 */
+	static final class Record {
+
+		private final int build;
+		private final byte flags;
+		private final float duration;
+		private final int failedSince;
+
+
+		Record(int build, byte flags, float duration, int failedSince) {
+			this.build = build;
+			this.flags = flags;
+			this.duration = duration;
+			this.failedSince = failedSince;
+		}
+
+
+		/** The record of a scenario in the given build. */
+		static Record of(int build, ScenarioResult scenario) {
+			int flags = (scenario.getFailCount() > 0 ? FAILED : 0) | (scenario.getSkipCount() > 0 ? SKIPPED : 0);
+			return new Record(build, (byte) flags, scenario.getDuration(),
+			                  scenario.isPassed() ? 0 : scenario.getFailedSince());
+		}
+
+
+		int getBuild() {
+			return build;
+		}
+
+
+		/** As {@link ScenarioResult#isPassed()}, so a skipped scenario has passed. */
+		boolean isPassed() {
+			return (flags & FAILED) == 0;
+		}
+
+
+		boolean isSkipped() {
+			return (flags & SKIPPED) != 0;
+		}
+
+
+		byte getFlags() {
+			return flags;
+		}
+
+
+		float getDuration() {
+			return duration;
+		}
+
+
+		int getFailedSince() {
+			return failedSince;
+		}
+
+
+		/**
+		 * Gets the status of the scenario in this build.
+		 *
+		 * @param previous the record of the scenario in the build before, if any.
+		 */
+		Status getStatus(Record previous) {
+			return ScenarioResult.getStatus(isPassed(), isSkipped(), previous);
+		}
+	}
+
+	/**
+	 * The records of one scenario in build order.
+	 */
+	private static final class Scenario {
+
+		/** The index of the id of the scenario in the file, -1 if it has not been written. */
+		int index = -1;
+		/** The number of the last records, up to the window, that passed when the one before failed or vice versa. */
+		int flips;
+		/** The durations of the records in the window before the last, leaving out those that were skipped. */
+		DurationSketch sketch = new DurationSketch();
+		int size;
+		int[] builds = new int[4];
+		byte[] flags = new byte[4];
+		float[] durations = new float[4];
+		int[] failedSince = new int[4];
+
+
+		void add(int build, byte flag, float duration, int since, int window) {
+			if (size == builds.length) {
+				int capacity = size * 2;
+				builds = Arrays.copyOf(builds, capacity);
+				flags = Arrays.copyOf(flags, capacity);
+				durations = Arrays.copyOf(durations, capacity);
+				failedSince = Arrays.copyOf(failedSince, capacity);
+			}
+			// builds nearly always complete in order
+			int i = size;
+			while (i > 0 && builds[i - 1] > build) {
+				i--;
+			}
+			System.arraycopy(builds, i, builds, i + 1, size - i);
+			System.arraycopy(flags, i, flags, i + 1, size - i);
+			System.arraycopy(durations, i, durations, i + 1, size - i);
+			System.arraycopy(failedSince, i, failedSince, i + 1, size - i);
+			builds[i] = build;
+			flags[i] = flag;
+			durations[i] = duration;
+			failedSince[i] = since;
+			size++;
+			if (i == size - 1) {
+				// the new record enters the window and the oldest one leaves it
+				flips += flipped(i) ? 1 : 0;
+				if (size > window) {
+					flips -= flipped(size - 1 - window) ? 1 : 0;
+				}
+				// as does the one before it for the durations
+				if (size > 1) {
+					updateSketch(size - 2, true);
+				}
+				if (size > window + 1) {
+					updateSketch(size - 2 - window, false);
+				}
+			}
+			else {
+				countWindow(window);
+			}
+		}
+
+
+		/** Drops the records of the builds before the given one. */
+		void removeBefore(int build, int window) {
+			int n = indexBefore(build) + 1;
+			if (n > 0) {
+				size -= n;
+				System.arraycopy(builds, n, builds, 0, size);
+				System.arraycopy(flags, n, flags, 0, size);
+				System.arraycopy(durations, n, durations, 0, size);
+				System.arraycopy(failedSince, n, failedSince, 0, size);
+				countWindow(window);
+			}
+		}
+
+
+		void remove(int build, int window) {
+			int i = indexOf(build);
+			if (i >= 0) {
+				size--;
+				System.arraycopy(builds, i + 1, builds, i, size - i);
+				System.arraycopy(flags, i + 1, flags, i, size - i);
+				System.arraycopy(durations, i + 1, durations, i, size - i);
+				System.arraycopy(failedSince, i + 1, failedSince, i, size - i);
+				countWindow(window);
+			}
+		}
+
+
+		/** Whether the record at the given index passed when the one before failed or vice versa. */
+		boolean flipped(int i) {
+			return i > 0 && ((flags[i] ^ flags[i - 1]) & FAILED) != 0;
+		}
+
+
+		/** Adds or removes the duration of a record, unless it was skipped as then not all of its steps were run. */
+		private void updateSketch(int i, boolean add) {
+			if ((flags[i] & SKIPPED) == 0) {
+				if (add) {
+					sketch.add(durations[i]);
+				}
+				else {
+					sketch.remove(durations[i]);
+				}
+			}
+		}
+
+
+		void countWindow(int window) {
+			flips = 0;
+			for (int i = Math.max(0, size - window); i < size; i++) {
+				flips += flipped(i) ? 1 : 0;
+			}
+			sketch = new DurationSketch();
+			for (int i = Math.max(0, size - 1 - window); i < size - 1; i++) {
+				updateSketch(i, true);
+			}
+		}
+
+
+		int indexOf(int build) {
+			int i = Arrays.binarySearch(builds, 0, size, build);
+			return i < 0 ? -1 : i;
+		}
+
+
+		/** The index of the last record before the given build, or -1 if there is none. */
+		int indexBefore(int build) {
+			int i = Arrays.binarySearch(builds, 0, size, build);
+			return (i < 0 ? -i - 1 : i) - 1;
+		}
+
+
+		/** The index of the record of the given build, or of the last one before it, or -1 if there is none. */
+		int indexAtOrBefore(int build) {
+			int i = Arrays.binarySearch(builds, 0, size, build);
+			return i < 0 ? -i - 2 : i;
+		}
+
+
+		Record get(int i) {
+			return new Record(builds[i], flags[i], durations[i], failedSince[i]);
+		}
+	}
+
+	/**
+	 * Removes deleted builds from the history of their job.
+	 */
+	@Extension
+	public static final class RunDeletedListener extends RunListener<Run<?, ?>> {
+
+		@Override
+		public void onDeleted(Run<?, ?> run) {
+			if (!new File(run.getParent().getRootDir(), FILE).exists()) {
+				return;
+			}
+			try {
+				of(run.getParent()).remove(run.getNumber());
+			}
+			catch (IOException ex) {
+				LOGGER.log(Level.WARNING, "Failed to remove " + run + " from the Cucumber scenario history", ex);
+			}
+		}
+	}
+}
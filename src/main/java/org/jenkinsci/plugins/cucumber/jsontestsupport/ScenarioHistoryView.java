@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.Util;
+import hudson.model.Run;
+import hudson.tasks.junit.CaseResult.Status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The history of a scenario over the latest builds of its job, a page at a time. It is read from the
+ * {@link ScenarioHistory} of the job so, unlike the history of a test in core, it does not load the result of each
+ * build and takes the same time however big the results are. Builds that are older than those the history keeps are
+ * only in the history of core.
+ * <p>
+ * The page holds 50 builds, which can be set with the
+ * <code>org.jenkinsci.plugins.cucumber.jsontestsupport.ScenarioHistoryView.pageSize</code> system property.
+ *
+ * @author James Nord
+ */
+public final class ScenarioHistoryView {
+
+	static final int PAGE_SIZE =
+	      Math.max(1, Integer.getInteger(ScenarioHistoryView.class.getName() + ".pageSize", 50).intValue());
+
+	private final ScenarioResult scenario;
+
+
+	ScenarioHistoryView(ScenarioResult scenario) {
+		this.scenario = scenario;
+	}
+
+
+	public ScenarioResult getScenario() {
+		return scenario;
+	}
+
+
+	public String getDisplayName() {
+		return "History";
+	}
+
+
+	/**
+	 * The number of the first build in the history, earlier builds are only in the history of core. This is 0 if all
+	 * builds are in the history.
+	 */
+	public int getStart() {
+		Run<?, ?> run = scenario.getRun();
+		if (run == null) {
+			return ScenarioHistory.NOT_STARTED;
+		}
+		return ScenarioHistory.of(run.getParent()).getStart();
+	}
+
+
+	/** Whether the history of the job has been started, it is started by the first build to complete. */
+	public boolean isStarted() {
+		return getStart() != ScenarioHistory.NOT_STARTED;
+	}
+
+
+	/**
+	 * Gets a page of the history, as asked for by the query of the request.
+	 *
+	 * @param from the first build to include, or <code>null</code> to start at the first.
+	 * @param to the last build to include, or <code>null</code> to end at the latest.
+	 * @param page the page to get, the first page, 1, being the latest builds.
+	 */
+	public Page getPage(String from, String to, String page) {
+		Run<?, ?> run = scenario.getRun();
+		if (run == null) {
+			return new Page(0, Integer.MAX_VALUE, 1, 0, Collections.<Entry> emptyList());
+		}
+		return getPage(ScenarioHistory.of(run.getParent()), parse(from, 0), parse(to, Integer.MAX_VALUE),
+		               parse(page, 1));
+	}
+
+
+	Page getPage(ScenarioHistory history, int from, int to, int page) {
+		String id = scenario.getId();
+		int total = history.countRecords(id, from, to);
+		int pages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+		page = Math.min(Math.max(page, 1), pages);
+		// one more than is shown, so that the status of the earliest one is known
+		List<ScenarioHistory.Record> records =
+		      history.getRecords(id, from, to, (page - 1) * PAGE_SIZE, PAGE_SIZE + 1);
+		List<Entry> entries = new ArrayList<Entry>(Math.min(records.size(), PAGE_SIZE));
+		for (int i = 0; i < records.size() && i < PAGE_SIZE; i++) {
+			ScenarioHistory.Record record = records.get(i);
+			ScenarioHistory.Record previous;
+			if (i + 1 < records.size()) {
+				previous = records.get(i + 1);
+			}
+			else {
+				previous = history.getPrevious(id, record.getBuild());
+			}
+			entries.add(new Entry(id, record, record.getStatus(previous)));
+		}
+		return new Page(from, to, page, total, entries);
+	}
+
+
+	private static int parse(String value, int defaultValue) {
+		value = Util.fixEmpty(value);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		}
+		catch (NumberFormatException ex) {
+			return defaultValue;
+		}
+	}
+
+
+	/**
+	 * A page of the history, the latest builds first.
+	 */
+	public static final class Page {
+
+		private final int from;
+		private final int to;
+		private final int page;
+		private final int total;
+		private final List<Entry> entries;
+
+
+		Page(int from, int to, int page, int total, List<Entry> entries) {
+			this.from = from;
+			this.to = to;
+			this.page = page;
+			this.total = total;
+			this.entries = entries;
+		}
+
+
+		/** The first build asked for, <code>null</code> if there was no limit. */
+		public Integer getFrom() {
+			return from > 0 ? Integer.valueOf(from) : null;
+		}
+
+
+		/** The last build asked for, <code>null</code> if there was no limit. */
+		public Integer getTo() {
+			return to < Integer.MAX_VALUE ? Integer.valueOf(to) : null;
+		}
+
+
+		public int getPage() {
+			return page;
+		}
+
+
+		public int getPageCount() {
+			return Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+		}
+
+
+		/** The number of builds that the scenario is in from the first build to the last. */
+		public int getTotal() {
+			return total;
+		}
+
+
+		public List<Entry> getEntries() {
+			return entries;
+		}
+
+
+		/** The query that gets another page of the same builds. */
+		public String getQuery(int page) {
+			StringBuilder sb = new StringBuilder("?page=").append(page);
+			if (from > 0) {
+				sb.append("&from=").append(from);
+			}
+			if (to < Integer.MAX_VALUE) {
+				sb.append("&to=").append(to);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * How the scenario did in one build.
+	 */
+	public static final class Entry {
+
+		private final String id;
+		private final ScenarioHistory.Record record;
+		private final Status status;
+
+
+		Entry(String id, ScenarioHistory.Record record, Status status) {
+			this.id = id;
+			this.record = record;
+			this.status = status;
+		}
+
+
+		public int getBuild() {
+			return record.getBuild();
+		}
+
+
+		public Status getStatus() {
+			return status;
+		}
+
+
+		/** The duration in seconds. */
+		public float getDuration() {
+			return record.getDuration();
+		}
+
+
+		public String getDurationString() {
+			return CucumberDurationAction.getDurationString(record.getDuration());
+		}
+
+
+		/** The build that the scenario started failing in, 0 if it passed. */
+		public int getFailedSince() {
+			return record.getFailedSince();
+		}
+
+
+		/** The URL of the scenario in the build, relative to the job. */
+		public String getUrl() {
+			return ScenarioHistory.getUrl(record.getBuild(), id);
+		}
+	}
+}
@@ -58,7 +58,7 @@ public class ScenarioResult extends TestResult {
 
 	private static final Logger LOGGER = Logger.getLogger(ScenarioResult.class.getName());
 
-	private Scenario scenario;
+	private Statement statement;
 
 	private List<StepResult> steps = new ArrayList<StepResult>();
 
@@ -75,7 +75,7 @@ public class ScenarioResult extends TestResult {
 	private FeatureResult parent;
 	
 	private transient Run<?, ?> owner;
-	private transient String safeName;
+	private transient volatile String safeName;
 
 	// true if this test failed
 	private transient boolean failed;
@@ -89,17 +89,45 @@ public class ScenarioResult extends TestResult {
     * If {@link #isPassed() passing}, this field is left unused to 0.
     */
    private int failedSince;
+
+	/**
+	 * The status of this scenario against the builds before it, resolved when the result was archived, or
+	 * <code>null</code> if it was recorded by an older version.
+	 */
+	private Status status;
    
 	
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
+	private Scenario scenario;
+
 	ScenarioResult(Scenario scenario, BackgroundResult backgroundResult) {
-		this.scenario = scenario;
+		this(Statement.of(scenario, StringTable.NONE), backgroundResult);
+	}
+
+
+	ScenarioResult(Statement statement, BackgroundResult backgroundResult) {
+		this.statement = statement;
 		this.backgroundResult = backgroundResult;
 	}
 
+
+	/**
+	 * Converts a result recorded by an older version that held on to the whole gherkin model.
+	 */
+	@SuppressWarnings("deprecation")
+	protected Object readResolve() {
+		if (scenario != null) {
+			statement = Statement.of(scenario, StringTable.NONE);
+			scenario = null;
+		}
+		return this;
+	}
+
 	@Override
 	@Exported(visibility=9)
 	public String getName() {
-		return scenario.getName();
+		return statement.getName();
 	}
 	
 	// XXX: getFullName was added in 1.594+
@@ -119,18 +147,31 @@ public class ScenarioResult extends TestResult {
 	}
 
 	@Override
-	public synchronized String getSafeName() {
+	public String getSafeName() {
+		if (safeName == null) {
+			parent.nameScenarios();
+		}
+		return safeName;
+	}
+
+	/**
+	 * Gives this scenario the next unique safe name for its id within the feature, if it has not already been named.
+	 */
+	void assignSafeName(SafeNames names) {
 		if (safeName != null) {
-			return safeName;
+			return;
 		}
-		String name = safe(scenario.getId());
+		String name = safe(statement.getId());
 		String parentName = parent.getSafeName() + ';';
 		
 		if (name.startsWith(parentName)) {
 			name = name.replace(parentName, "");
 		}
-		safeName = uniquifyName(parent.getChildren(), name);
-		return safeName;
+		safeName = names.uniquify(name);
+	}
+
+	void forgetSafeName() {
+		safeName = null;
 	}
 	
 	@Override
@@ -239,8 +280,18 @@ public class ScenarioResult extends TestResult {
 		return steps;
 	}
 	
+	/**
+	 * @deprecated the gherkin model is no longer kept, this recreates the parts that are shown in the report. Use
+	 *             {@link #getStatement()} instead.
+	 */
+	@Deprecated
 	public Scenario getScenario() {
-		return scenario;
+		return statement.toScenario();
+	}
+
+
+	Statement getStatement() {
+		return statement;
 	}
 
 	@Override
@@ -253,19 +304,36 @@ public class ScenarioResult extends TestResult {
 	@Exported(name = "status", visibility = 9)
 	// stapler strips the trailing 's'
 	public Status getStatus() {
-		if (getSkipCount() > 0) {
+		if (status != null) {
+			return status;
+		}
+		return getStatus(getPreviousRecord());
+	}
+
+
+	private Status getStatus(ScenarioHistory.Record previous) {
+		return getStatus(isPassed(), getSkipCount() > 0, previous);
+	}
+
+
+	/**
+	 * Gets the status of a scenario given how it did in the build before.
+	 *
+	 * @param previous the record of the scenario in the build before, if any.
+	 */
+	static Status getStatus(boolean passed, boolean skipped, ScenarioHistory.Record previous) {
+		if (skipped) {
 			// treat pending as skipped (undefined are errors).
 			return Status.SKIPPED;
 		}
-		ScenarioResult psr = (ScenarioResult) getPreviousResult();
-		if (psr == null) {
-			return isPassed() ? Status.PASSED : Status.FAILED;
+		if (previous == null) {
+			return passed ? Status.PASSED : Status.FAILED;
 		}
-		if (psr.isPassed()) {
-			return isPassed() ? Status.PASSED : Status.REGRESSION;
+		if (previous.isPassed()) {
+			return passed ? Status.PASSED : Status.REGRESSION;
 		}
 		else {
-			return isPassed() ? Status.FIXED : Status.FAILED;
+			return passed ? Status.FIXED : Status.FAILED;
 		}
 	}
 
@@ -279,20 +347,107 @@ public class ScenarioResult extends TestResult {
 		// If we haven't calculated failedSince yet, and we should,
 		// do it now.
 		if (failedSince == 0 && getFailCount() == 1) {
-			ScenarioResult prev = (ScenarioResult) getPreviousResult();
-			if (prev != null && !prev.isPassed())
-				this.failedSince = prev.getFailedSince();
-			else if (getRun() != null) {
-				this.failedSince = getRun().getNumber();
-			}
-			else {
-				LOGGER.warning("Can not calculate failed since. we have a previous result but no owner.");
-				// failedSince will be 0, which isn't correct.
+			resolveFailedSince(getPreviousRecord());
+		}
+		return failedSince;
+	}
+
+	private void resolveFailedSince(ScenarioHistory.Record prev) {
+		if (prev != null && !prev.isPassed())
+			this.failedSince = prev.getFailedSince();
+		else if (getRun() != null) {
+			this.failedSince = getRun().getNumber();
+		}
+		else {
+			LOGGER.warning("Can not calculate failed since. we have a previous result but no owner.");
+			// failedSince will be 0, which isn't correct.
+		}
+	}
+
+	/**
+	 * Works out the {@link #getStatus() status} and {@link #getFailedSince() failed since} build of this scenario
+	 * against the builds before it, which are kept with the result so that showing it (and its age) never has to
+	 * look at older builds. Called once when the result is archived.
+	 */
+	void resolveStatus() {
+		ScenarioHistory.Record previous = getPreviousRecord();
+		status = getStatus(previous);
+		if (failedSince == 0 && getFailCount() == 1) {
+			resolveFailedSince(previous);
+		}
+	}
+
+	/**
+	 * Gets the history of this scenario over the builds of the job, which is read from the {@link ScenarioHistory}
+	 * of the job rather than the result of each build.
+	 */
+	public ScenarioHistoryView getScenarioHistory() {
+		return new ScenarioHistoryView(this);
+	}
+
+	/**
+	 * Gets how this scenario did in the latest build before this one that it is in. This is read from the
+	 * {@link ScenarioHistory} of the job, only the previous result is loaded if it is from before the history was
+	 * started.
+	 * 
+	 * @return the record or <code>null</code> if the scenario is new.
+	 */
+	private ScenarioHistory.Record getPreviousRecord() {
+		Run<?, ?> run = getRun();
+		if (run == null) {
+			return null;
+		}
+		ScenarioHistory history = ScenarioHistory.of(run.getParent());
+		String id = getId();
+		ScenarioHistory.Record previous = history.getPrevious(id, run.getNumber());
+		if (previous != null) {
+			return previous;
+		}
+		// only the previous result is looked at, as core does, and only if it is from before the history was started,
+		// otherwise the history would have had the scenario if the previous result did, so the scenario is new
+		for (Run<?, ?> b = run.getPreviousBuild(); b != null; b = b.getPreviousBuild()) {
+			CucumberTestResultAction action = b.getAction(CucumberTestResultAction.class);
+			if (action != null) {
+				if (b.getNumber() >= history.getStart()) {
+					return null;
+				}
+				TestResult result = action.getResult().findCorrespondingResult(id);
+				return result instanceof ScenarioResult
+				       ? ScenarioHistory.Record.of(b.getNumber(), (ScenarioResult) result) : null;
 			}
 		}
+		return null;
+	}
+
+	/** The recorded value of {@link #getFailedSince()}, without calculating it. */
+	int getRecordedFailedSince() {
 		return failedSince;
 	}
 
+	void setRecordedFailedSince(int failedSince) {
+		this.failedSince = failedSince;
+	}
+
+	/** The status that was {@link #resolveStatus() resolved} when the result was archived, if any. */
+	Status getRecordedStatus() {
+		return status;
+	}
+
+	void setRecordedStatus(Status status) {
+		this.status = status;
+	}
+
+	/**
+	 * Restores the state calculated by {@link #tally()} along with the {@link #getSafeName() safe name} as they
+	 * were when the result was archived.
+	 */
+	synchronized void restoreTally(String safeName, boolean failed, boolean skipped, float duration) {
+		this.safeName = safeName;
+		this.failed = failed;
+		this.skipped = skipped;
+		this.duration = duration;
+	}
+
 	/**
 	 * Gets the number of consecutive builds (including this) that this test case has been failing.
 	 */
@@ -370,23 +525,23 @@ public class ScenarioResult extends TestResult {
 			if(backgroundResult != null && !backgroundResult.isPassed()) {
 				for (StepResult step : backgroundResult.getStepResults()) {
 					if (!step.isPassed()) {
-						return step.getResult().getErrorMessage();
+						return step.getErrorMessage();
 					}
 				}
 			}
 			for (BeforeAfterResult before : getBeforeResults()) {
 				if (!before.isPassed()) {
-					return before.getResult().getErrorMessage();
+					return before.getErrorMessage();
 				}
 			}
 			for (StepResult step : getStepResults()) {
 				if (!step.isPassed()) {
-					return step.getResult().getErrorMessage();
+					return step.getErrorMessage();
 				}
 			}
 			for (BeforeAfterResult after : getAfterResults()) {
 				if (!after.isPassed()) {
-					return after.getResult().getErrorMessage();
+					return after.getErrorMessage();
 				}
 			}
 		}
@@ -452,9 +607,16 @@ public class ScenarioResult extends TestResult {
 				// is there enough here to display the thing??
 				for (EmbeddedItem item : getEmbeddedItems()) {
 					if (item.getFilename().equals(rest)) {
-						File file = new File(getRun().getRootDir(), "cucumber/embed/" + getParent().getSafeName() +
-								"/" +
-								getSafeName() + "/" + item.getFilename());
+						File file;
+						if (item.getHash() != null) {
+							file = new EmbeddedItemStore(getRun().getParent().getRootDir()).getFile(item.getHash());
+						}
+						else {
+							// recorded before the embedded item store
+							file = new File(getRun().getRootDir(), "cucumber/embed/" + getParent().getSafeName() +
+									"/" +
+									getSafeName() + "/" + item.getFilename());
+						}
 						try {
 							FileInputStream fileInputStream = new FileInputStream(file);
 							rsp.serveFile(req, fileInputStream, file.lastModified(), Long.MAX_VALUE, file.length(),
@@ -23,19 +23,7 @@
  */
 package org.jenkinsci.plugins.cucumber.jsontestsupport;
 
-import gherkin.formatter.Argument;
-import gherkin.formatter.model.Background;
-import gherkin.formatter.model.Comment;
-import gherkin.formatter.model.DataTableRow;
-import gherkin.formatter.model.DescribedStatement;
-import gherkin.formatter.model.Match;
-import gherkin.formatter.model.Result;
-import gherkin.formatter.model.Step;
-import gherkin.formatter.model.Tag;
-import gherkin.formatter.model.TagStatement;
-
 import java.util.List;
-import java.util.Locale;
 
 public class ScenarioToHTML {
 
@@ -62,8 +50,13 @@ public class ScenarioToHTML {
 		}
 
 
-		public static RESULT_TYPE typeFromResult(Result r) {
-			return RESULT_TYPE.valueOf(r.getStatus().toUpperCase(Locale.UK));
+		static RESULT_TYPE typeFromResult(ResultStatus status) {
+			switch (status) {
+				case UNKNOWN:
+					return NO_RESULT;
+				default:
+					return RESULT_TYPE.valueOf(status.name());
+			}
 		}
 	}
 
@@ -94,14 +87,14 @@ public class ScenarioToHTML {
 		sb.append("<tbody>\n");
 		// being gherkin output...
 
-		addTagStatement(sb, scenarioResult.getParent().getFeature());
+		addTagStatement(sb, scenarioResult.getParent().getStatement());
 
 		for (BeforeAfterResult before : scenarioResult.getBeforeResults()) {
 			addBeforeAfterResult(sb, "before", before);
 		}
 		addBackgroundResult(sb, scenarioResult.getBackgroundResult());
 
-		addTagStatement(sb, scenarioResult.getScenario());
+		addTagStatement(sb, scenarioResult.getStatement());
 
 		for (StepResult stepResult : scenarioResult.getStepResults()) {
 			addStepResult(sb, stepResult);
@@ -133,13 +126,13 @@ public class ScenarioToHTML {
 		return stringBuilder;
 	}
 
-	private StringBuilder addTagStatement(StringBuilder sb, TagStatement tagStatement) {
-		for (Comment comment : tagStatement.getComments()) {
+	private StringBuilder addTagStatement(StringBuilder sb, Statement tagStatement) {
+		for (Statement.Line comment : tagStatement.getComments()) {
 			addComment(sb, comment);
 		}
-		for (Tag tag : tagStatement.getTags()) {
+		for (Statement.Line tag : tagStatement.getTags()) {
 			createLine(sb, tag.getLine(), RESULT_TYPE.NO_RESULT);
-			sb.append(tag.getName());
+			sb.append(tag.getText());
 		}
 		createLine(sb, tagStatement.getLine(), RESULT_TYPE.NO_RESULT);
 		appendKeyword(sb, tagStatement.getKeyword()).append(' ').append(tagStatement.getName());
@@ -161,8 +154,8 @@ public class ScenarioToHTML {
 		return sb;
 	}
 
-	public StringBuilder addDescribedStatement(StringBuilder sb, DescribedStatement ds) {
-		for (Comment comment : ds.getComments()) {
+	StringBuilder addDescribedStatement(StringBuilder sb, Statement ds) {
+		for (Statement.Line comment : ds.getComments()) {
 			addComment(sb, comment);
 		}
 		createLine(sb, ds.getLine(), RESULT_TYPE.NO_RESULT);
@@ -174,7 +167,7 @@ public class ScenarioToHTML {
 	}
 	
 	
-	private StringBuilder createLine(StringBuilder sb, Integer line, RESULT_TYPE type) {
+	private StringBuilder createLine(StringBuilder sb, int line, RESULT_TYPE type) {
 		String lineStr = String.format("%03d", line);
 		return createLine(sb, lineStr, type);
 	}
@@ -197,10 +190,10 @@ public class ScenarioToHTML {
 	}
 
 
-	public StringBuilder addComment(StringBuilder sb, Comment comment) {
+	StringBuilder addComment(StringBuilder sb, Statement.Line comment) {
 		createLine(sb, comment.getLine(), RESULT_TYPE.NO_RESULT);
 		sb.append("<span style=\"font-style:italic; color: #666666\">");
-		sb.append(comment.getValue());
+		sb.append(comment.getText());
 		sb.append("</span>");
 
 		endLine(sb);
@@ -217,11 +210,9 @@ public class ScenarioToHTML {
 	public StringBuilder addBeforeAfterResult(StringBuilder sb,
 	                                          String beforeOrAfter,
 	                                          BeforeAfterResult beforeAfter) {
-		Match m = beforeAfter.getMatch();
-		Result r = beforeAfter.getResult();
-		createLine(sb, beforeOrAfter, RESULT_TYPE.typeFromResult(r));
-		sb.append(m.getLocation()).append(' ');
-		addFailure(sb, r);
+		createLine(sb, beforeOrAfter, RESULT_TYPE.typeFromResult(beforeAfter.getResultStatus()));
+		sb.append(beforeAfter.getLocation()).append(' ');
+		addFailure(sb, beforeAfter.getResultStatus(), beforeAfter.getErrorMessage());
 		// XXX add argument formatting
 		// List<Argument> args = m.getArguments();
 		endLine(sb);
@@ -229,10 +220,10 @@ public class ScenarioToHTML {
 	}
 
 
-	public StringBuilder addFailure(StringBuilder sb, Result result) {
-		if (Result.FAILED.equals(result.getStatus())) {
+	StringBuilder addFailure(StringBuilder sb, ResultStatus status, String errorMessage) {
+		if (status == ResultStatus.FAILED) {
 			createLine(sb, "Failure", RESULT_TYPE.FAILED);
-			String[] stack = result.getErrorMessage().split("\n");
+			String[] stack = errorMessage.split("\n");
 
 			sb.append(stack[0]).append("<br>");
 			for (int i = 1; i < stack.length; i++) {
@@ -245,7 +236,7 @@ public class ScenarioToHTML {
 			 * for (StackTraceElement ste : stack) { sb.append(ste.toString()).append("<br>"); } }
 			 */
 		}
-		else if ("undefined".equals(result.getStatus())) {
+		else if (status == ResultStatus.UNDEFINED) {
 			createLine(sb, "Undefined", RESULT_TYPE.UNDEFINED);
 			sb.append("Step is undefined");
 			// We have no error message.
@@ -257,8 +248,7 @@ public class ScenarioToHTML {
 
 	public StringBuilder addBackgroundResult(StringBuilder sb, BackgroundResult backgroundResult) {
 		if (backgroundResult != null) {
-			Background background = backgroundResult.getBackground();
-			addDescribedStatement(sb, background);
+			addDescribedStatement(sb, backgroundResult.getStatement());
 			for (StepResult step : backgroundResult.getStepResults()) {
 				addStepResult(sb, step);
 			}
@@ -268,16 +258,11 @@ public class ScenarioToHTML {
 
 
 	public StringBuilder addStepResult(StringBuilder sb, StepResult stepResult) {
-		Step step = stepResult.getStep();
-		{
-			List<Comment> comments = step.getComments();
-			if (comments != null) {
-				for (Comment c : comments) {
-					addComment(sb, c);
-				}
-			}
+		Statement step = stepResult.getStatement();
+		for (Statement.Line c : step.getComments()) {
+			addComment(sb, c);
 		}
-		createLine(sb, step.getLine(), RESULT_TYPE.typeFromResult(stepResult.getResult()));
+		createLine(sb, step.getLine(), RESULT_TYPE.typeFromResult(stepResult.getResultStatus()));
 		appendKeyword(sb, step.getKeyword());
 		sb.append(' ');
 		sb.append(step.getName());
@@ -285,12 +270,9 @@ public class ScenarioToHTML {
 			indent++;
 
 			boolean firstRow = true;
-			for (DataTableRow dtr : step.getRows()) {
-				List<Comment> comments = dtr.getComments();
-				if (comments != null) {
-					for (Comment comment : comments) {
-						addComment(sb, comment);
-					}
+			for (Statement.Row dtr : step.getRows()) {
+				for (Statement.Line comment : dtr.getComments()) {
+					addComment(sb, comment);
 				}
 				createLine(sb, dtr.getLine(), RESULT_TYPE.NO_RESULT);
 				int colwidth = 100 / (dtr.getCells().size());
@@ -320,7 +302,7 @@ public class ScenarioToHTML {
 		}
 		endLine(sb);
 		// TODO add support for table rows...
-		addFailure(sb, stepResult.getResult());
+		addFailure(sb, stepResult.getResultStatus(), stepResult.getErrorMessage());
 		return sb;
 	}
 
@@ -0,0 +1,356 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Comment;
+import gherkin.formatter.model.DataTableRow;
+import gherkin.formatter.model.DescribedStatement;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.Step;
+import gherkin.formatter.model.Tag;
+import gherkin.formatter.model.TagStatement;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parts of a Gherkin feature, background, scenario or step that are shown in the report. This is kept in place
+ * of the gherkin model, which holds much more than is needed.
+ *
+ * @author James Nord
+ */
+final class Statement implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<Line> comments;
+	private final List<Line> tags;
+	private final String keyword;
+	private final String name;
+	private final String description;
+	private final int line;
+	private final String id;
+	/** The data table of a step, or <code>null</code>. */
+	private final List<Row> rows;
+
+
+	Statement(List<Line> comments, List<Line> tags, String keyword, String name, String description, int line,
+	          String id, List<Row> rows) {
+		this.comments = compact(comments);
+		this.tags = compact(tags);
+		this.keyword = keyword;
+		this.name = name;
+		this.description = description;
+		this.line = line;
+		this.id = id;
+		this.rows = rows == null ? null : compact(rows);
+	}
+
+
+	/**
+	 * Converts a feature or scenario.
+	 *
+	 * @param strings the table to share the strings of the statement through.
+	 */
+	static Statement of(TagStatement statement, StringTable strings) {
+		return new Statement(toLines(statement.getComments(), strings), toTagLines(statement.getTags(), strings),
+		                     strings.get(statement.getKeyword()), strings.get(statement.getName()),
+		                     strings.get(statement.getDescription()), toLine(statement.getLine()),
+		                     strings.get(statement.getId()), null);
+	}
+
+
+	/**
+	 * Converts a background.
+	 *
+	 * @param strings the table to share the strings of the statement through.
+	 */
+	static Statement of(DescribedStatement statement, StringTable strings) {
+		return new Statement(toLines(statement.getComments(), strings), null, strings.get(statement.getKeyword()),
+		                     strings.get(statement.getName()), strings.get(statement.getDescription()),
+		                     toLine(statement.getLine()), null, null);
+	}
+
+
+	/**
+	 * Converts a step along with its data table.
+	 *
+	 * @param strings the table to share the strings of the step through.
+	 */
+	static Statement of(Step step, StringTable strings) {
+		List<Row> rows = null;
+		if (step.getRows() != null) {
+			rows = new ArrayList<Row>(step.getRows().size());
+			for (DataTableRow row : step.getRows()) {
+				List<String> cells = new ArrayList<String>(row.getCells().size());
+				for (String cell : row.getCells()) {
+					cells.add(strings.get(cell));
+				}
+				rows.add(new Row(toLines(row.getComments(), strings), cells, toLine(row.getLine())));
+			}
+		}
+		return new Statement(toLines(step.getComments(), strings), null, strings.get(step.getKeyword()),
+		                     strings.get(step.getName()), null, toLine(step.getLine()), null, rows);
+	}
+
+
+	List<Line> getComments() {
+		return comments;
+	}
+
+
+	List<Line> getTags() {
+		return tags;
+	}
+
+
+	String getKeyword() {
+		return keyword;
+	}
+
+
+	String getName() {
+		return name;
+	}
+
+
+	/** The description, or <code>null</code> for a step. */
+	String getDescription() {
+		return description;
+	}
+
+
+	int getLine() {
+		return line;
+	}
+
+
+	/** The id of a feature or scenario, otherwise <code>null</code>. */
+	String getId() {
+		return id;
+	}
+
+
+	/** The data table of a step, or <code>null</code> if it has none. */
+	List<Row> getRows() {
+		return rows;
+	}
+
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof Statement)) {
+			return false;
+		}
+		Statement other = (Statement) obj;
+		return line == other.line && equal(keyword, other.keyword) && equal(name, other.name)
+		       && equal(description, other.description) && equal(id, other.id) && comments.equals(other.comments)
+		       && tags.equals(other.tags) && equal(rows, other.rows);
+	}
+
+
+	@Override
+	public int hashCode() {
+		int hash = line;
+		hash = 31 * hash + (name == null ? 0 : name.hashCode());
+		hash = 31 * hash + (keyword == null ? 0 : keyword.hashCode());
+		return hash;
+	}
+
+
+	Feature toFeature() {
+		return new Feature(toComments(comments), toTags(tags), keyword, name, description, Integer.valueOf(line), id);
+	}
+
+
+	Scenario toScenario() {
+		return new Scenario(toComments(comments), toTags(tags), keyword, name, description, Integer.valueOf(line), id);
+	}
+
+
+	Background toBackground() {
+		return new Background(toComments(comments), keyword, name, description, Integer.valueOf(line));
+	}
+
+
+	private static <T> List<T> compact(List<T> list) {
+		if (list == null || list.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(new ArrayList<T>(list));
+	}
+
+
+	private static boolean equal(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+
+	private static int toLine(Integer line) {
+		return line == null ? 0 : line.intValue();
+	}
+
+
+	private static List<Line> toLines(List<Comment> comments, StringTable strings) {
+		if (comments == null || comments.isEmpty()) {
+			return null;
+		}
+		List<Line> lines = new ArrayList<Line>(comments.size());
+		for (Comment comment : comments) {
+			lines.add(new Line(strings.get(comment.getValue()), toLine(comment.getLine())));
+		}
+		return lines;
+	}
+
+
+	private static List<Line> toTagLines(List<Tag> tags, StringTable strings) {
+		if (tags == null || tags.isEmpty()) {
+			return null;
+		}
+		List<Line> lines = new ArrayList<Line>(tags.size());
+		for (Tag tag : tags) {
+			lines.add(new Line(strings.get(tag.getName()), toLine(tag.getLine())));
+		}
+		return lines;
+	}
+
+
+	private static List<Comment> toComments(List<Line> lines) {
+		List<Comment> comments = new ArrayList<Comment>(lines.size());
+		for (Line line : lines) {
+			comments.add(new Comment(line.getText(), Integer.valueOf(line.getLine())));
+		}
+		return comments;
+	}
+
+
+	private static List<Tag> toTags(List<Line> lines) {
+		List<Tag> tags = new ArrayList<Tag>(lines.size());
+		for (Line line : lines) {
+			tags.add(new Tag(line.getText(), Integer.valueOf(line.getLine())));
+		}
+		return tags;
+	}
+
+	/**
+	 * A comment or tag and the line it is on.
+	 */
+	static final class Line implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String text;
+		private final int line;
+
+
+		Line(String text, int line) {
+			this.text = text;
+			this.line = line;
+		}
+
+
+		/** The text of a comment, or the name of a tag. */
+		String getText() {
+			return text;
+		}
+
+
+		int getLine() {
+			return line;
+		}
+
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Line)) {
+				return false;
+			}
+			Line other = (Line) obj;
+			return line == other.line && equal(text, other.text);
+		}
+
+
+		@Override
+		public int hashCode() {
+			return 31 * line + (text == null ? 0 : text.hashCode());
+		}
+	}
+
+	/**
+	 * A row of the data table of a step.
+	 */
+	static final class Row implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Line> comments;
+		private final List<String> cells;
+		private final int line;
+
+
+		Row(List<Line> comments, List<String> cells, int line) {
+			this.comments = compact(comments);
+			this.cells = compact(cells);
+			this.line = line;
+		}
+
+
+		List<Line> getComments() {
+			return comments;
+		}
+
+
+		List<String> getCells() {
+			return cells;
+		}
+
+
+		int getLine() {
+			return line;
+		}
+
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Row)) {
+				return false;
+			}
+			Row other = (Row) obj;
+			return line == other.line && cells.equals(other.cells) && comments.equals(other.comments);
+		}
+
+
+		@Override
+		public int hashCode() {
+			return 31 * line + cells.hashCode();
+		}
+	}
+}
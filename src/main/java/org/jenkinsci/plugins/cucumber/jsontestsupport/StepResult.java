@@ -38,8 +38,22 @@ public class StepResult extends TestResult {
 
 	private static final long serialVersionUID = 1L;
 
+	private Statement statement;
+	/** The location of the step definition, <code>null</code> if the step was not matched. */
+	private String location;
+	private ResultStatus status;
+	private String errorMessage;
+	/** in nanoseconds. */
+	private long duration;
+
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
 	private Step step;
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
 	private Match match;
+	/** @deprecated only read from results recorded by older versions, see {@link #readResolve()}. */
+	@Deprecated
 	private Result result;
 
 	private ScenarioResult parent;
@@ -47,9 +61,45 @@ public class StepResult extends TestResult {
 
 
 	StepResult(Step step, Match match, Result result) {
-		this.step = step;
-		this.match = match;
-		this.result = result;
+		this(step, match, result, StringTable.NONE);
+	}
+
+
+	/**
+	 * @param strings the table to share the strings of the step through.
+	 */
+	StepResult(Step step, Match match, Result result, StringTable strings) {
+		this(Statement.of(step, strings), strings.get(CucumberUtils.getLocation(match)),
+		     ResultStatus.fromString(result.getStatus()), strings.get(result.getErrorMessage()),
+		     CucumberUtils.getDuration(result));
+	}
+
+
+	StepResult(Statement statement, String location, ResultStatus status, String errorMessage, long duration) {
+		this.statement = statement;
+		this.location = location;
+		this.status = status;
+		this.errorMessage = errorMessage;
+		this.duration = duration;
+	}
+
+
+	/**
+	 * Converts a result recorded by an older version that held on to the whole gherkin model.
+	 */
+	@SuppressWarnings("deprecation")
+	protected Object readResolve() {
+		if (step != null) {
+			statement = Statement.of(step, StringTable.NONE);
+			location = CucumberUtils.getLocation(match);
+			status = ResultStatus.fromString(result.getStatus());
+			errorMessage = result.getErrorMessage();
+			duration = CucumberUtils.getDuration(result);
+			step = null;
+			match = null;
+			result = null;
+		}
+		return this;
 	}
 
 
@@ -89,7 +139,7 @@ public class StepResult extends TestResult {
 
 	@Override
 	public float getDuration() {
-		return CucumberUtils.durationFromResult(result);
+		return CucumberUtils.nanosToSeconds(duration);
 	}
 
 
@@ -97,7 +147,7 @@ public class StepResult extends TestResult {
 	 * Gets the total number of passed tests.
 	 */
 	public int getPassCount() {
-		return CucumberUtils.PASSED_TEST_STRING.equals(result.getStatus()) ? 1 : 0;
+		return status == ResultStatus.PASSED ? 1 : 0;
 	}
 
 
@@ -105,11 +155,7 @@ public class StepResult extends TestResult {
 	 * Gets the total number of failed tests.
 	 */
 	public int getFailCount() {
-		if (CucumberUtils.FAILED_TEST_STRING.equals(result.getStatus())
-			    || CucumberUtils.UNDEFINED_TEST_STRING.equals(result.getStatus())) {
-			return 1;
-		}
-		return 0;
+		return status.isFailed() ? 1 : 0;
 	}
 
 
@@ -117,25 +163,40 @@ public class StepResult extends TestResult {
 	 * Gets the total number of skipped tests.
 	 */
 	public int getSkipCount() {
-		if (CucumberUtils.SKIPPED_TEST_STRING.equals(result.getStatus())
-		    || CucumberUtils.PENDING_TEST_STRING.equals(result.getStatus())) {
-			return 1;
-		}
-		return 0;
+		return status.isSkipped() ? 1 : 0;
+	}
+
+
+	Statement getStatement() {
+		return statement;
+	}
+
+
+	/** Replaces the statement with an equal one so that the two are shared. */
+	void shareStatement(Statement statement) {
+		assert this.statement.equals(statement);
+		this.statement = statement;
+	}
+
+
+	/** The location of the step definition, <code>null</code> if the step was not matched. */
+	String getLocation() {
+		return location;
 	}
 
 
-	Step getStep() {
-		return step;
+	ResultStatus getResultStatus() {
+		return status;
 	}
 
 
-	Match getMatch() {
-		return match;
+	String getErrorMessage() {
+		return errorMessage;
 	}
 
 
-	Result getResult() {
-		return result;
+	/** The duration in nanoseconds. */
+	long getDurationNanos() {
+		return duration;
 	}
 }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares one instance of each distinct string of a {@link CucumberTestResult}. Keywords, step names, tags,
+ * locations and even error messages repeat many times in a large report, so each is kept once rather than once per
+ * step that uses it.
+ * <p>
+ * A parser fills a table whilst it parses the reports of a result and drops it when it is done, as the sharing of
+ * the strings survives serialization of the result. A result that is read back from disk keeps its table so that
+ * the scenarios of its features, which are read when they are first needed, share the strings that were read
+ * before them.
+ *
+ * @author James Nord
+ */
+final class StringTable {
+
+	/** A table that shares nothing, for results that are not built by a parser. */
+	static final StringTable NONE = new StringTable(null);
+
+	/** <code>null</code> if strings are not shared. */
+	private final ConcurrentMap<String, String> strings;
+
+
+	StringTable() {
+		this(new ConcurrentHashMap<String, String>());
+	}
+
+
+	private StringTable(ConcurrentMap<String, String> strings) {
+		this.strings = strings;
+	}
+
+
+	/**
+	 * Gets the shared instance of a string, adding it to the table if it has not been seen before.
+	 *
+	 * @param s the string, possibly <code>null</code>.
+	 * @return a string equal to <code>s</code>, or <code>null</code> if <code>s</code> is <code>null</code>.
+	 */
+	String get(String s) {
+		if (s == null || strings == null) {
+			return s;
+		}
+		String shared = strings.putIfAbsent(s, s);
+		return shared == null ? s : shared;
+	}
+
+
+	/** The number of distinct strings in the table. */
+	int size() {
+		return strings == null ? 0 : strings.size();
+	}
+}
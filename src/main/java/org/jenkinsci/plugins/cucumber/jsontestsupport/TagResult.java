@@ -61,6 +61,12 @@ public class TagResult extends MetaTabulatedResult {
 
 	private CucumberTestResult parent;
 
+	/**
+	 * The scenarios with this tag if this was restored from a summary and they have not been needed yet, otherwise
+	 * <code>null</code>. Reading these will load the scenarios of the features that they belong to.
+	 */
+	private transient List<ScenarioResult> pendingScenarioResults;
+
 
 	TagResult(String tagName) {
 		this.tagName = tagName;
@@ -79,11 +85,13 @@ public class TagResult extends MetaTabulatedResult {
 
 	@Override
 	public Collection<ScenarioResult> getChildren() {
+		loadScenarios();
 		return scenarioResults;
 	}
 
 
 	public Collection<ScenarioResult> getScenarioResults() {
+		loadScenarios();
 		return scenarioResults;
 	}
 
@@ -96,6 +104,7 @@ public class TagResult extends MetaTabulatedResult {
 
 	@Override
 	public boolean hasChildren() {
+		loadScenarios();
 		return !scenarioResults.isEmpty();
 	}
 
@@ -113,7 +122,7 @@ public class TagResult extends MetaTabulatedResult {
 
 	@Override
 	public TestObject getParent() {
-		return parent;
+		return parent == null ? null : parent.getParentOf(this);
 	}
 
 
@@ -131,6 +140,7 @@ public class TagResult extends MetaTabulatedResult {
 
 	@Override
 	public Collection<ScenarioResult> getFailedTests() {
+		loadScenarios();
 		return failedScenarioResults;
 	}
 
@@ -140,8 +150,35 @@ public class TagResult extends MetaTabulatedResult {
 	}
 
 
-	void addScenarioResult(ScenarioResult scenarioResult) {
-		scenarioResults.add(scenarioResult);
+	/**
+	 * Adds tallied scenarios to this tag, updating the totals and failed scenarios with those that are not already
+	 * here. The totals of the scenarios are summed before they are added so that the result is the same as for a
+	 * tag that was {@link CucumberResultCodec#append(CucumberTestResult, java.io.File, int) appended}.
+	 */
+	synchronized void addScenarioResults(Collection<ScenarioResult> scenarios) {
+		loadScenarios();
+		if (failedScenarioResults == null) {
+			failedScenarioResults = new ArrayList<ScenarioResult>();
+		}
+		int passed = 0;
+		int failed = 0;
+		int skipped = 0;
+		float time = 0.0f;
+		for (ScenarioResult sr : scenarios) {
+			if (scenarioResults.add(sr)) {
+				passed += sr.getPassCount();
+				failed += sr.getFailCount();
+				skipped += sr.getSkipCount();
+				time += sr.getDuration();
+				if (!sr.isPassed()) {
+					failedScenarioResults.add(sr);
+				}
+			}
+		}
+		passCount += passed;
+		failCount += failed;
+		skipCount += skipped;
+		duration += time;
 	}
 
 
@@ -156,8 +193,58 @@ public class TagResult extends MetaTabulatedResult {
 	}
 
 
+	/**
+	 * Restores the state calculated by {@link #tally()} without loading the scenarios, which will be taken from the
+	 * given list when they are first needed.
+	 */
+	void restoreTally(List<ScenarioResult> scenarioResults, int passCount, int failCount, int skipCount,
+	                  float duration) {
+		this.pendingScenarioResults = scenarioResults;
+		this.passCount = passCount;
+		this.failCount = failCount;
+		this.skipCount = skipCount;
+		this.duration = duration;
+	}
+
+	/**
+	 * Creates a copy of this tag, with the same scenarios and totals, that can have scenarios added without
+	 * changing this tag.
+	 */
+	synchronized TagResult copy() {
+		TagResult copy = new TagResult(tagName);
+		if (pendingScenarioResults != null) {
+			copy.pendingScenarioResults = pendingScenarioResults;
+		}
+		else {
+			copy.scenarioResults.addAll(scenarioResults);
+			if (failedScenarioResults != null) {
+				copy.failedScenarioResults = new ArrayList<ScenarioResult>(failedScenarioResults);
+			}
+		}
+		copy.passCount = passCount;
+		copy.failCount = failCount;
+		copy.skipCount = skipCount;
+		copy.duration = duration;
+		return copy;
+	}
+
+	private synchronized void loadScenarios() {
+		if (pendingScenarioResults == null) {
+			return;
+		}
+		failedScenarioResults = new ArrayList<ScenarioResult>();
+		for (ScenarioResult sr : pendingScenarioResults) {
+			scenarioResults.add(sr);
+			if (!sr.isPassed()) {
+				failedScenarioResults.add(sr);
+			}
+		}
+		pendingScenarioResults = null;
+	}
+
 	@Override
 	public void tally() {
+		loadScenarios();
 		if (failedScenarioResults == null) {
 			failedScenarioResults = new ArrayList<ScenarioResult>();
 		}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import gherkin.JSONParser;
+import hudson.model.TaskListener;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Compares the throughput of {@link CucumberJSONBinder} with Gherkin's {@link JSONParser} replayed through
+ * {@link GherkinCallback}. This is not a test, run it from the test classpath with
+ *
+ * <pre>
+ * java org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberJSONBinderBenchmark [iterations] [report or directory...]
+ * </pre>
+ *
+ * which parses the reports in <code>ScenarioResultTest</code> 200 times if nothing is given. Each parser is warmed up
+ * with a quarter of the iterations before it is timed.
+ *
+ * @author James Nord
+ */
+public class CucumberJSONBinderBenchmark {
+
+	private static final int ITERATIONS = 200;
+
+	private final List<File> reports;
+	private final int iterations;
+	private final File embedDir;
+
+
+	CucumberJSONBinderBenchmark(List<File> reports, int iterations, File embedDir) {
+		this.reports = reports;
+		this.iterations = iterations;
+		this.embedDir = embedDir;
+	}
+
+
+	public static void main(String[] args) throws Exception {
+		int iterations = ITERATIONS;
+		List<File> reports = new ArrayList<File>();
+		for (int i = 0; i < args.length; i++) {
+			if (i == 0 && args[i].matches("\\d+")) {
+				iterations = Integer.parseInt(args[i]);
+			}
+			else {
+				addReports(reports, new File(args[i]));
+			}
+		}
+		if (reports.isEmpty()) {
+			addReports(reports, new File(CucumberJSONBinderBenchmark.class.getResource("ScenarioResultTest").toURI()));
+		}
+		File embedDir = File.createTempFile("cucumber-benchmark", "");
+		if (!embedDir.delete() || !embedDir.mkdir()) {
+			throw new IOException("Could not create " + embedDir);
+		}
+		try {
+			new CucumberJSONBinderBenchmark(reports, iterations, embedDir).run();
+		}
+		finally {
+			FileUtils.deleteDirectory(embedDir);
+		}
+	}
+
+
+	private static void addReports(List<File> reports, File file) {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles(new FilenameFilter() {
+				public boolean accept(File dir, String name) {
+					return name.endsWith(".json");
+				}
+			});
+			Arrays.sort(files);
+			reports.addAll(Arrays.asList(files));
+		}
+		else {
+			reports.add(file);
+		}
+	}
+
+
+	void run() throws IOException {
+		long bytes = 0;
+		for (File report : reports) {
+			bytes += report.length();
+		}
+		for (int i = 0; i < iterations / 4; i++) {
+			parseWithGherkin();
+			parseWithBinder();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			parseWithGherkin();
+		}
+		long gherkin = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			parseWithBinder();
+		}
+		long binder = System.nanoTime() - start;
+		System.out.println(String.format("Gherkin JSONParser: %.2f MB/s, CucumberJSONBinder: %.2f MB/s (%d reports x %d)",
+		                                 throughput(bytes, gherkin), throughput(bytes, binder), reports.size(),
+		                                 iterations));
+	}
+
+
+	private double throughput(long bytes, long nanos) {
+		return (bytes * (double) iterations / (1024 * 1024)) / (nanos / 1000000000d);
+	}
+
+
+	private void parseWithGherkin() throws IOException {
+		CucumberTestResult result = new CucumberTestResult();
+		GherkinCallback callback = new GherkinCallback(result, TaskListener.NULL, false, embedDir);
+		for (File report : reports) {
+			new JSONParser(callback, callback).parse(FileUtils.readFileToString(report, "UTF-8"));
+		}
+		result.tally();
+	}
+
+
+	private void parseWithBinder() throws IOException {
+		CucumberTestResult result = new CucumberTestResult();
+		CucumberJSONBinder binder = new CucumberJSONBinder(result, TaskListener.NULL, false, embedDir);
+		for (File report : reports) {
+			binder.parse(report);
+		}
+		result.tally();
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import gherkin.JSONParser;
+import hudson.model.TaskListener;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks that {@link CucumberJSONBinder} produces the same results as Gherkin's {@link JSONParser} replayed
+ * through {@link GherkinCallback}.
+ */
+public class CucumberJSONBinderTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File[] reports;
+	private File embedDir;
+	private TaskListener listener;
+
+
+	@Before
+	public void setup() throws Exception {
+		File dir = new File(CucumberJSONBinderTest.class.getResource("ScenarioResultTest").toURI());
+		reports = dir.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.endsWith(".json");
+			}
+		});
+		Arrays.sort(reports);
+		Assert.assertTrue("no reports found", reports.length > 0);
+		embedDir = tmp.newFolder("embed");
+		listener = Mockito.mock(TaskListener.class);
+		Mockito.when(listener.getLogger()).thenReturn(System.out);
+	}
+
+
+	@Test
+	public void testSameResultsAsGherkinJSONParser() throws Exception {
+		for (File report : reports) {
+			CucumberTestResult expected = parseWithGherkin(report);
+			CucumberTestResult actual = parseWithBinder(report);
+			assertThat(report.getName(), describe(actual), is(describe(expected)));
+		}
+	}
+
+
+	@Test
+	public void testSharesStrings() throws Exception {
+		// as with CucumberJSONParser one parser parses all of the reports of a result
+		CucumberTestResult gherkin = new CucumberTestResult();
+		CucumberTestResult binder = new CucumberTestResult();
+		GherkinCallback callback = new GherkinCallback(gherkin, listener, false, embedDir);
+		CucumberJSONBinder jsonBinder = new CucumberJSONBinder(binder, listener, false, embedDir);
+		for (File report : reports) {
+			new JSONParser(callback, callback).parse(FileUtils.readFileToString(report, "UTF-8"));
+			jsonBinder.parse(report);
+		}
+		assertKeywordsShared(gherkin);
+		assertKeywordsShared(binder);
+	}
+
+
+	/** Checks that equal step keywords across the whole result are the same instance. */
+	private static void assertKeywordsShared(CucumberTestResult result) {
+		Map<String, String> keywords = new HashMap<String, String>();
+		for (FeatureResult feature : result.getFeatures()) {
+			for (ScenarioResult scenario : feature.getChildren()) {
+				for (StepResult step : scenario.getStepResults()) {
+					String keyword = step.getStatement().getKeyword();
+					if (!keywords.containsKey(keyword)) {
+						keywords.put(keyword, keyword);
+					}
+					assertThat(keyword, sameInstance(keywords.get(keyword)));
+				}
+			}
+		}
+		Assert.assertFalse("no steps", keywords.isEmpty());
+	}
+
+
+	private CucumberTestResult parseWithGherkin(File report) throws Exception {
+		CucumberTestResult result = new CucumberTestResult();
+		GherkinCallback callback = new GherkinCallback(result, listener, false, embedDir);
+		new JSONParser(callback, callback).parse(FileUtils.readFileToString(report, "UTF-8"));
+		result.tally();
+		return result;
+	}
+
+
+	private CucumberTestResult parseWithBinder(File report) throws Exception {
+		CucumberTestResult result = new CucumberTestResult();
+		new CucumberJSONBinder(result, listener, false, embedDir).parse(report);
+		result.tally();
+		return result;
+	}
+
+
+	private static String describe(CucumberTestResult result) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(counts(result.getPassCount(), result.getFailCount(), result.getSkipCount(), result.getDuration()));
+		for (FeatureResult feature : result.getFeatures()) {
+			sb.append("\nFeature ").append(feature.getURI()).append(' ').append(feature.getName()).append(' ');
+			sb.append(counts(feature.getPassCount(), feature.getFailCount(), feature.getSkipCount(), feature.getDuration()));
+			for (Statement.Line tag : feature.getStatement().getTags()) {
+				sb.append(' ').append(tag.getText());
+			}
+			for (ScenarioResult scenario : feature.getChildren()) {
+				sb.append("\n  Scenario ").append(scenario.getName()).append(' ');
+				sb.append(counts(scenario.getPassCount(), scenario.getFailCount(), scenario.getSkipCount(),
+				                 scenario.getDuration()));
+				for (Statement.Line tag : scenario.getStatement().getTags()) {
+					sb.append(' ').append(tag.getText());
+				}
+				if (scenario.getBackgroundResult() != null) {
+					sb.append("\n    Background ").append(scenario.getBackgroundResult().getName());
+					for (StepResult step : scenario.getBackgroundResult().getStepResults()) {
+						describe(sb, step);
+					}
+				}
+				for (BeforeAfterResult before : scenario.getBeforeResults()) {
+					sb.append("\n    Before ").append(before.getLocation()).append(' ');
+					sb.append(before.getResultStatus().getStatus()).append(' ').append(before.getDuration());
+				}
+				for (StepResult step : scenario.getStepResults()) {
+					describe(sb, step);
+				}
+				for (BeforeAfterResult after : scenario.getAfterResults()) {
+					sb.append("\n    After ").append(after.getLocation()).append(' ');
+					sb.append(after.getResultStatus().getStatus()).append(' ').append(after.getDuration());
+				}
+				for (EmbeddedItem item : scenario.getEmbeddedItems()) {
+					sb.append("\n    Embedded ").append(item.getMimetype()).append(' ').append(item.getHash());
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+
+	private static void describe(StringBuilder sb, StepResult step) {
+		Statement statement = step.getStatement();
+		sb.append("\n    Step ").append(statement.getKeyword()).append(statement.getName()).append(':');
+		sb.append(statement.getLine()).append(' ').append(step.getResultStatus().getStatus()).append(' ');
+		sb.append(step.getDuration()).append(' ').append(step.getErrorMessage());
+		if (step.getLocation() != null) {
+			sb.append(' ').append(step.getLocation());
+		}
+		if (statement.getRows() != null) {
+			sb.append(' ').append(statement.getRows().size()).append(" rows");
+		}
+	}
+
+
+	private static String counts(int pass, int fail, int skip, float duration) {
+		return "pass:" + pass + " fail:" + fail + " skip:" + skip + " duration:" + duration;
+	}
+}
@@ -23,23 +23,36 @@
  */
 package org.jenkinsci.plugins.cucumber.jsontestsupport;
 
+import hudson.AbortException;
 import hudson.model.TaskListener;
 
 import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.assertThat;
 
 public class CucumberJSONParserTest {
 
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
 
 	@Test
 	public void testParsing() throws Exception {
@@ -165,6 +178,91 @@ public class CucumberJSONParserTest {
 		                                   .getEmbeddedItems(), hasSize(1));
 	}
 
+	@Test
+	public void testEmbeddedItemWrittenToEmbedDirectory() throws Exception {
+		File embedDir = tmp.newFolder("embed");
+		CucumberJSONParser parser = new CucumberJSONParser();
+		parser.setEmbedDirectory(embedDir.getAbsolutePath());
+
+		File f = getResourceAsFile("ScenarioResultTest/cucumber-embedded-item.json");
+		String json = FileUtils.readFileToString(f, "UTF-8");
+		Matcher m = Pattern.compile("\"data\": \"([^\"]*)\"").matcher(json);
+		Assert.assertTrue("no embedded data in report", m.find());
+		// cucumber-jvm (gson) escapes the base64 padding
+		byte[] expected = Base64.decodeBase64(m.group(1).replace("\\u003d", "="));
+
+		List<File> files = new ArrayList<File>();
+		files.add(f);
+
+		TaskListener mockListener = Mockito.mock(TaskListener.class);
+		Mockito.when(mockListener.getLogger()).thenReturn(System.out);
+
+		CucumberTestResult testresult = parser.parse(files, mockListener);
+		EmbeddedItem item = testresult.getFeatures().iterator().next().getChildren().iterator().next()
+		                              .getEmbeddedItems().get(0);
+		assertThat("Embedded item mimetype", item.getMimetype(), is("image/png"));
+		assertThat("Embedded item hash", item.getHash(), is(DigestUtils.sha256Hex(expected)));
+		assertThat("Embedded item named by its hash", item.getFilename(), is(item.getHash()));
+		assertThat("Only the embedded item is in the embed directory", embedDir.list().length, is(1));
+		File embedded = new File(embedDir, item.getFilename());
+		assertThat("Embedded item decoded to the embed directory", FileUtils.readFileToByteArray(embedded),
+		           is(expected));
+	}
+
+	@Test
+	public void testParallelParsingMergesInFileOrder() throws Exception {
+		List<File> files = new ArrayList<File>();
+		files.add(getResourceAsFile("ScenarioResultTest/undefinedStep.json"));
+		files.add(getResourceAsFile("ScenarioResultTest/cucumber-jvm_examples_java-calculator__cucumber-report.json"));
+		files.add(getResourceAsFile("ScenarioResultTest/backgroundFailure.json"));
+		files.add(getResourceAsFile("ScenarioResultTest/pending.json"));
+		// the same report twice to check the names are uniquified the same way
+		files.add(getResourceAsFile("ScenarioResultTest/pending.json"));
+
+		TaskListener mockListener = Mockito.mock(TaskListener.class);
+		Mockito.when(mockListener.getLogger()).thenReturn(System.out);
+
+		CucumberTestResult sequential = new CucumberJSONParser(false, 1).parse(files, mockListener);
+		CucumberTestResult parallel = new CucumberJSONParser(false, 4).parse(files, mockListener);
+
+		assertThat("Correct # of passing tests", parallel.getPassCount(), is(sequential.getPassCount()));
+		assertThat("Correct # of failing tests", parallel.getFailCount(), is(sequential.getFailCount()));
+		assertThat("Correct # of skipped tests", parallel.getSkipCount(), is(sequential.getSkipCount()));
+		assertThat("Duration is correct", parallel.getDuration(), is(sequential.getDuration()));
+		assertThat("Correct # of features", parallel.getFeatures(), hasSize(sequential.getFeatures().size()));
+
+		Iterator<FeatureResult> expected = sequential.getFeatures().iterator();
+		for (FeatureResult actual : parallel.getFeatures()) {
+			FeatureResult feature = expected.next();
+			assertThat("Features are in file order", actual.getURI(), is(feature.getURI()));
+			assertThat("Feature has the same safe name", actual.getSafeName(), is(feature.getSafeName()));
+			assertThat("Correct # of scenarios", actual.getChildren(), hasSize(feature.getChildren().size()));
+		}
+	}
+
+	@Test
+	public void testTruncatedReport() throws Exception {
+		CucumberJSONParser parser = new CucumberJSONParser();
+
+		File f = tmp.newFile("truncated.json");
+		String json = FileUtils.readFileToString(getResourceAsFile("ScenarioResultTest/pending.json"), "UTF-8");
+		FileUtils.writeStringToFile(f, json.substring(0, json.length() / 2), "UTF-8");
+
+		List<File> files = new ArrayList<File>();
+		files.add(f);
+
+		TaskListener mockListener = Mockito.mock(TaskListener.class);
+		Mockito.when(mockListener.getLogger()).thenReturn(System.out);
+
+		try {
+			parser.parse(files, mockListener);
+			Assert.fail("truncated JSON should not have parsed");
+		}
+		catch (AbortException expected) {
+			assertThat(expected.getMessage(), containsString("Malformed JSON"));
+		}
+	}
+
 	
 	private static File getResourceAsFile(String resource) throws Exception {
 		URL url = CucumberJSONParserTest.class.getResource(resource);
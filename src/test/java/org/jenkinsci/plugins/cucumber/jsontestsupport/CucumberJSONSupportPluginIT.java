@@ -45,6 +45,7 @@ import hudson.model.Node;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.slaves.DumbSlave;
+import hudson.tasks.junit.CaseResult;
 import jenkins.model.Jenkins;
 
 import static org.hamcrest.Matchers.is;
@@ -179,6 +180,45 @@ public class CucumberJSONSupportPluginIT {
 		jenkinsRule.assertBuildStatus(Result.FAILURE, r1);
 	}
 
+	@Test
+	public void testStatusOfOverlappingBuilds() throws Exception {
+		WorkflowJob job = jenkinsRule.jenkins.createProject(WorkflowJob.class, "overlap");
+
+		// the second build passes and is still running when the third fails
+		job.setDefinition(new CpsFlowDefinition("node {\n" +
+										"  if (currentBuild.number == 2) {\n" +
+										"    writeFile file: 'result.json', text: '''" +
+										getResourceAsString("featurePass.json") +
+										"  '''\n" +
+										"  } else {\n" +
+										"    writeFile file: 'result.json', text: '''" +
+										getResourceAsString("featureFail.json") +
+										"  '''\n" +
+										"  }\n" +
+										"  step($class: 'CucumberTestResultArchiver', testResults: 'result.json')\n" +
+										"}\n" +
+										"if (currentBuild.number == 2) {\n" +
+										"  semaphore 'wait'\n" +
+										"}"));
+
+		WorkflowRun r1 = job.scheduleBuild2(0).get();
+		jenkinsRule.assertBuildStatus(Result.FAILURE, r1);
+		WorkflowRun r2 = job.scheduleBuild2(0).getStartCondition().get();
+		SemaphoreStep.waitForStart("wait/1", r2);
+		WorkflowRun r3 = job.scheduleBuild2(0).get();
+		assertTrue(JenkinsRule.getLog(r2), r2.isBuilding());
+
+		// against the published result of the second build, not the completed first one
+		ScenarioResult scenario =
+		      r3.getAction(CucumberTestResultAction.class).getResult().getFailedTests().iterator().next();
+		assertThat(scenario.getStatus(), is(CaseResult.Status.REGRESSION));
+		assertThat(scenario.getFailedSince(), is(3));
+
+		SemaphoreStep.success("wait/1", true);
+		jenkinsRule.waitForCompletion(r2);
+	}
+
+
 	@Test
 	public void testSymbol() throws Exception {
 		WorkflowJob job = jenkinsRule.jenkins.createProject(WorkflowJob.class, "symbol");
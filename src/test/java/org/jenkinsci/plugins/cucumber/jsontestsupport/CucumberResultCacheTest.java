@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CucumberResultCacheTest {
+
+	private final CucumberResultCache cache = new CucumberResultCache(100);
+
+
+	@Test
+	public void testHitsAndMisses() {
+		CucumberTestResult a = new CucumberTestResult();
+		assertThat(cache.get("job#1"), nullValue());
+		cache.put("job#1", a, 10);
+		assertThat(cache.get("job#1"), sameInstance(a));
+		assertThat(cache.get("job#2"), nullValue());
+		assertThat(cache.getHitCount(), is(1L));
+		assertThat(cache.getMissCount(), is(2L));
+		assertThat(cache.getSize(), is(10L));
+	}
+
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() {
+		CucumberTestResult a = new CucumberTestResult();
+		CucumberTestResult b = new CucumberTestResult();
+		CucumberTestResult c = new CucumberTestResult();
+		cache.put("job#1", a, 40);
+		cache.put("job#2", b, 40);
+		// job#1 is now more recent than job#2
+		cache.get("job#1");
+		cache.put("job#3", c, 40);
+
+		assertThat(cache.get("job#2"), nullValue());
+		assertThat(cache.get("job#1"), sameInstance(a));
+		assertThat(cache.get("job#3"), sameInstance(c));
+		assertThat(cache.getEvictionCount(), is(1L));
+		assertThat(cache.getSize(), is(80L));
+	}
+
+
+	@Test
+	public void testReplaceAndRemove() {
+		CucumberTestResult a = new CucumberTestResult();
+		CucumberTestResult b = new CucumberTestResult();
+		cache.put("job#1", a, 40);
+		cache.put("job#1", b, 60);
+		assertThat(cache.get("job#1"), sameInstance(b));
+		assertThat(cache.getSize(), is(60L));
+		cache.remove("job#1");
+		assertThat(cache.get("job#1"), nullValue());
+		assertThat(cache.getSize(), is(0L));
+		assertThat(cache.getEvictionCount(), is(0L));
+	}
+
+
+	@Test
+	public void testGrowsAsMoreIsLoaded() {
+		CucumberTestResult a = new CucumberTestResult();
+		CucumberTestResult b = new CucumberTestResult();
+		cache.put("job#1", a, 40);
+		cache.put("job#2", b, 40);
+		cache.grow("job#3", 10);
+		assertThat(cache.getSize(), is(80L));
+		// the scenarios of a feature of job#1 are loaded
+		cache.grow("job#1", 30);
+		assertThat(cache.getSize(), is(70L));
+		assertThat(cache.get("job#2"), nullValue());
+		assertThat(cache.get("job#1"), sameInstance(a));
+		assertThat(cache.getEvictionCount(), is(1L));
+	}
+
+
+	@Test
+	public void testKeepsResultLargerThanBudget() {
+		CucumberTestResult a = new CucumberTestResult();
+		CucumberTestResult b = new CucumberTestResult();
+		cache.put("job#1", a, 10);
+		cache.put("job#2", b, 500);
+		assertThat(cache.get("job#2"), sameInstance(b));
+		assertThat(cache.get("job#1"), nullValue());
+		assertThat(cache.getCount(), is(1));
+	}
+
+
+	@Test
+	public void testFailedLoadIsNotCached() {
+		final CucumberTestResult loaded = new CucumberTestResult();
+		final AtomicInteger loads = new AtomicInteger();
+		CucumberResultCache.Loader loader = new CucumberResultCache.Loader() {
+			public CucumberTestResult load() throws Exception {
+				if (loads.incrementAndGet() == 1) {
+					throw new IOException("corrupt");
+				}
+				return loaded;
+			}
+
+			public long estimateSize(CucumberTestResult result) {
+				return 10;
+			}
+		};
+		assertThat(cache.get("job#1", loader), nullValue());
+		assertThat(cache.getCount(), is(0));
+		assertThat(cache.get("job#1", loader), sameInstance(loaded));
+		assertThat(loads.get(), is(2));
+	}
+
+
+	@Test(timeout = 10000)
+	public void testLoadsOnceForConcurrentReaders() throws Exception {
+		final CucumberTestResult loaded = new CucumberTestResult();
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CucumberResultCache.Loader loader = new CucumberResultCache.Loader() {
+			public CucumberTestResult load() throws Exception {
+				loads.incrementAndGet();
+				loading.countDown();
+				release.await();
+				return loaded;
+			}
+
+			public long estimateSize(CucumberTestResult result) {
+				return 10;
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Callable<CucumberTestResult> reader = new Callable<CucumberTestResult>() {
+				public CucumberTestResult call() {
+					return cache.get("job#1", loader);
+				}
+			};
+			Future<CucumberTestResult> first = executor.submit(reader);
+			loading.await();
+			Future<CucumberTestResult> second = executor.submit(reader);
+			Future<CucumberTestResult> third = executor.submit(reader);
+
+			// other builds are not held up by the load
+			CucumberTestResult other = new CucumberTestResult();
+			cache.put("job#2", other, 10);
+			assertThat(cache.get("job#2"), sameInstance(other));
+
+			release.countDown();
+			assertThat(first.get(), sameInstance(loaded));
+			assertThat(second.get(), sameInstance(loaded));
+			assertThat(third.get(), sameInstance(loaded));
+		}
+		finally {
+			executor.shutdownNow();
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		assertThat(loads.get(), is(1));
+		assertThat(cache.get("job#1", loader), sameInstance(loaded));
+		assertThat(loads.get(), is(1));
+	}
+}
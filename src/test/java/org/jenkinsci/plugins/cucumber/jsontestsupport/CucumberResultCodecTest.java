@@ -0,0 +1,432 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import gherkin.formatter.model.Comment;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.Step;
+import gherkin.formatter.model.Tag;
+import hudson.model.TaskListener;
+import hudson.tasks.junit.CaseResult.Status;
+import hudson.tasks.test.TestResult;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CucumberResultCodecTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File[] reports;
+	private File embedDir;
+	private TaskListener listener;
+
+
+	@Before
+	public void setup() throws Exception {
+		File dir = new File(CucumberResultCodecTest.class.getResource("ScenarioResultTest").toURI());
+		reports = dir.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.endsWith(".json");
+			}
+		});
+		Arrays.sort(reports);
+		Assert.assertTrue("no reports found", reports.length > 0);
+		embedDir = tmp.newFolder("embed");
+		listener = Mockito.mock(TaskListener.class);
+		Mockito.when(listener.getLogger()).thenReturn(System.out);
+	}
+
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		for (File report : reports) {
+			CucumberTestResult expected = parse(report);
+			ScenarioResult first = expected.getFeatures().iterator().next().getChildren().iterator().next();
+			first.setRecordedFailedSince(42);
+			first.setRecordedStatus(Status.REGRESSION);
+
+			CucumberTestResult actual = CucumberResultCodec.read(write(expected));
+			assertThat(report.getName(), describe(actual), is(describe(expected)));
+			ScenarioResult actualFirst = actual.getFeatures().iterator().next().getChildren().iterator().next();
+			assertThat(report.getName(), actualFirst.getRecordedFailedSince(), is(42));
+			// the status resolved when the result was archived is shown without looking at other builds
+			assertThat(report.getName(), actualFirst.getStatus(), is(Status.REGRESSION));
+		}
+	}
+
+
+	@Test
+	public void testSummaryOnlyReadsSummary() throws Exception {
+		for (File report : reports) {
+			CucumberTestResult expected = parse(report);
+			File directory = write(expected);
+			CucumberTestResult actual = CucumberResultCodec.read(directory);
+			// nothing but the summary should be needed to list the features and tags.
+			for (File file : directory.listFiles()) {
+				if (!file.getName().equals(CucumberResultCodec.SUMMARY_FILE)) {
+					Assert.assertTrue(file.delete());
+				}
+			}
+			assertThat(report.getName(), summarize(actual), is(summarize(expected)));
+		}
+	}
+
+
+	@Test
+	public void testAppendAndCompact() throws Exception {
+		CucumberTestResult expected = parse(reports[0]);
+		File directory = write(expected);
+		int written = expected.getFeatures().size();
+		for (int i = 1; i < reports.length; i++) {
+			expected = expected.merge(parse(reports[i]));
+			CucumberResultCodec.append(expected, directory, written);
+			written = expected.getFeatures().size();
+		}
+		String rewritten = describe(CucumberResultCodec.read(write(expected)));
+		// the features that were merged are named as they are when the result is read again
+		assertThat(describe(expected), is(rewritten));
+		File summary = new File(directory, CucumberResultCodec.SUMMARY_FILE);
+		long summaryLength = summary.length();
+		assertThat(describe(CucumberResultCodec.read(directory)), is(rewritten));
+
+		Assert.assertTrue(CucumberResultCodec.compact(directory));
+		for (File file : directory.listFiles()) {
+			Assert.assertFalse(file.getName(), file.getName().startsWith("segment-"));
+		}
+		assertThat(summaryLength, lessThan(summary.length()));
+		assertThat(describe(CucumberResultCodec.read(directory)), is(rewritten));
+		Assert.assertFalse(CucumberResultCodec.compact(directory));
+	}
+
+
+	@Test
+	public void testUniquifiedNamesRestored() throws Exception {
+		CucumberTestResult expected = new CucumberTestResult();
+		FeatureResult feature = new FeatureResult("a.feature", new Feature(Collections.<Comment> emptyList(),
+		                                                                   Collections.<Tag> emptyList(), "Feature",
+		                                                                   "A", "", 1, "a"));
+		expected.addFeatureResult(feature);
+		for (String status : new String[] { "passed", "failed", "skipped" }) {
+			// all have the same id
+			ScenarioResult scenario = new ScenarioResult(new Scenario(Collections.<Comment> emptyList(),
+			                                                          Collections.<Tag> emptyList(), "Scenario", "S",
+			                                                          "", 2, "a;s"), null);
+			scenario.addStepResult(new StepResult(new Step(Collections.<Comment> emptyList(), "Given ", "a step", 3,
+			                                               null, null),
+			                                      null, new Result(status, Long.valueOf(1000000L), null)));
+			feature.addScenarioResult(scenario);
+		}
+		expected.tally();
+
+		CucumberTestResult actual = CucumberResultCodec.read(write(expected));
+		assertThat(actual.getFailedTests().size(), is(1));
+		assertThat(actual.getFailedTests().iterator().next().getSafeName(), is("s_2"));
+		List<String> names = new ArrayList<String>();
+		for (ScenarioResult scenario : actual.getFeatures().iterator().next().getChildren()) {
+			names.add(scenario.getSafeName());
+		}
+		assertThat(names, is(Arrays.asList("s", "s_2", "s_3")));
+		Object third = actual.getFeatures().iterator().next().getChildren().toArray()[2];
+		assertThat(actual.findCorrespondingResult(feature.getId() + "/s_3"), is(third));
+		assertThat(describe(actual), is(describe(expected)));
+	}
+
+
+	@Test
+	public void testSharesStringsAcrossFeatures() throws Exception {
+		CucumberTestResult expected = new CucumberTestResult();
+		for (File report : reports) {
+			new CucumberJSONBinder(expected, listener, false, embedDir).parse(report);
+		}
+		expected.tally();
+		assertThat(expected.getFeatures().size(), greaterThan(1));
+
+		// each feature is read from its own file
+		CucumberTestResult actual = CucumberResultCodec.read(write(expected));
+		Map<String, String> keywords = new HashMap<String, String>();
+		for (FeatureResult feature : actual.getFeatures()) {
+			for (ScenarioResult scenario : feature.getChildren()) {
+				for (StepResult step : scenario.getStepResults()) {
+					String keyword = step.getStatement().getKeyword();
+					if (!keywords.containsKey(keyword)) {
+						keywords.put(keyword, keyword);
+					}
+					assertThat(keyword, sameInstance(keywords.get(keyword)));
+				}
+			}
+		}
+	}
+
+
+	@Test
+	public void testSmallerThanReport() throws Exception {
+		for (File report : reports) {
+			long size = 0;
+			for (File file : write(parse(report)).listFiles()) {
+				size += file.length();
+			}
+			assertThat(report.getName(), size, lessThan(report.length()));
+		}
+	}
+
+
+	@Test
+	public void testEstimatesLoadedScenariosOnly() throws Exception {
+		CucumberTestResult expected = parse(reports[0]);
+		File directory = write(expected);
+		long summary = new File(directory, CucumberResultCodec.SUMMARY_FILE).length();
+		assertThat(CucumberResultCodec.estimateSize(directory, expected),
+		           greaterThan(summary * CucumberResultCodec.EXPANSION));
+
+		CucumberTestResult actual = CucumberResultCodec.read(directory);
+		assertThat(CucumberResultCodec.estimateSize(directory, actual), is(summary * CucumberResultCodec.EXPANSION));
+		FeatureResult feature = actual.getFeatures().iterator().next();
+		feature.getChildren();
+		assertThat(feature.isScenariosLoaded(), is(true));
+		assertThat(CucumberResultCodec.estimateSize(directory, actual),
+		           greaterThan(summary * CucumberResultCodec.EXPANSION));
+	}
+
+
+	@Test(expected = IOException.class)
+	public void testNotEncoded() throws Exception {
+		File directory = tmp.newFolder();
+		FileUtils.writeStringToFile(new File(directory, CucumberResultCodec.SUMMARY_FILE), "<result/>", "UTF-8");
+		CucumberResultCodec.read(directory);
+	}
+
+
+	@Test(expected = EOFException.class)
+	public void testTruncated() throws Exception {
+		File summary = new File(write(parse(reports[0])), CucumberResultCodec.SUMMARY_FILE);
+		byte[] encoded = FileUtils.readFileToByteArray(summary);
+		FileUtils.writeByteArrayToFile(summary, Arrays.copyOf(encoded, encoded.length / 2));
+		CucumberResultCodec.read(summary.getParentFile());
+	}
+
+
+	@Test
+	public void testUnreadableScenarios() throws Exception {
+		CucumberTestResult expected = parse(new File(reports[0].getParentFile(), "backgroundFailure.json"));
+		File directory = write(expected);
+		int failing = -1;
+		int i = 0;
+		for (FeatureResult feature : expected.getFeatures()) {
+			if (feature.getFailCount() > 0) {
+				failing = i;
+			}
+			i++;
+		}
+		Assert.assertTrue("no failing feature", failing >= 0);
+		FileUtils.writeStringToFile(new File(directory, "feature-" + failing + ".bin"), "corrupt", "UTF-8");
+
+		CucumberTestResult actual = CucumberResultCodec.read(directory);
+		FeatureResult feature = actual.getFeatureResult(failing);
+		assertThat(feature.getChildren().size(), is(0));
+		assertThat(feature.getFailCount(), is(0));
+		assertThat(feature.getTotalCount(), is(0));
+		// the failed scenarios of the feature are left out rather than breaking the list
+		for (ScenarioResult scenario : actual.getFailedTests()) {
+			Assert.assertNotSame(feature, scenario.getParent());
+		}
+		assertThat(actual.getFailedTests().size(),
+		           is(expected.getFailedTests().size() - expected.getFeatureResult(failing).getFailedTests().size()));
+	}
+
+
+	@Test
+	public void testNewerVersion() throws Exception {
+		File summary = new File(write(parse(reports[0])), CucumberResultCodec.SUMMARY_FILE);
+		byte[] encoded = FileUtils.readFileToByteArray(summary);
+		// the version follows the magic number
+		assertThat(encoded[4], is((byte) CucumberResultCodec.VERSION));
+		encoded[4] = CucumberResultCodec.VERSION + 1;
+		FileUtils.writeByteArrayToFile(summary, encoded);
+		try {
+			CucumberResultCodec.read(summary.getParentFile());
+			Assert.fail("read a result written by a newer version");
+		}
+		catch (IOException expected) {
+			assertThat(expected.getMessage(), containsString("newer version"));
+		}
+	}
+
+
+	private CucumberTestResult parse(File report) throws Exception {
+		CucumberTestResult result = new CucumberTestResult();
+		new CucumberJSONBinder(result, listener, false, embedDir).parse(report);
+		result.tally();
+		return result;
+	}
+
+
+	private File write(CucumberTestResult result) throws IOException {
+		File directory = tmp.newFolder();
+		CucumberResultCodec.write(result, directory);
+		return directory;
+	}
+
+
+	/** Describes what is shown on the top level page, without looking at any scenarios. */
+	private static String summarize(CucumberTestResult result) {
+		StringBuilder sb = new StringBuilder();
+		counts(sb, result);
+		for (FeatureResult feature : result.getFeatures()) {
+			sb.append("\nFeature ").append(feature.getURI()).append(' ').append(feature.getSafeName()).append(' ');
+			counts(sb, feature);
+			assertThat(result.findCorrespondingResult(feature.getId()), is((Object) feature));
+			describe(sb, feature.getStatement());
+		}
+		for (String tag : new TreeSet<String>(result.getTagMap().keySet())) {
+			sb.append("\nTag ").append(tag).append(' ');
+			counts(sb, result.getTagMap().get(tag));
+		}
+		return sb.toString();
+	}
+
+
+	private static String describe(CucumberTestResult result) {
+		StringBuilder sb = new StringBuilder(summarize(result));
+		for (String tag : new TreeSet<String>(result.getTagMap().keySet())) {
+			sb.append("\nTag ").append(tag);
+			Set<String> scenarios = new TreeSet<String>();
+			for (ScenarioResult scenario : result.getTagMap().get(tag).getChildren()) {
+				scenarios.add(scenario.getId());
+			}
+			sb.append(' ').append(scenarios);
+			sb.append(' ').append(result.getTagMap().get(tag).getFailedTests().size());
+		}
+		for (ScenarioResult scenario : result.getFailedTests()) {
+			sb.append("\nFailed ").append(scenario.getId());
+		}
+		for (FeatureResult feature : result.getFeatures()) {
+			sb.append("\nFeature ").append(feature.getURI()).append(' ').append(feature.getSafeName());
+			describe(sb, feature.getStatement());
+			for (ScenarioResult scenario : feature.getChildren()) {
+				sb.append("\n Scenario ").append(scenario.getSafeName()).append(' ').append(scenario.getFailCount());
+				sb.append(' ').append(scenario.getRecordedStatus());
+				describe(sb, scenario.getStatement());
+				if (scenario.getBackgroundResult() != null) {
+					sb.append("\n  Background");
+					describe(sb, scenario.getBackgroundResult().getStatement());
+					for (StepResult step : scenario.getBackgroundResult().getStepResults()) {
+						describe(sb, step);
+					}
+				}
+				for (BeforeAfterResult before : scenario.getBeforeResults()) {
+					sb.append("\n  Before");
+					describe(sb, before.getLocation(), before.getResultStatus(), before.getDurationNanos(),
+					         before.getErrorMessage());
+				}
+				for (StepResult step : scenario.getStepResults()) {
+					describe(sb, step);
+				}
+				for (BeforeAfterResult after : scenario.getAfterResults()) {
+					sb.append("\n  After");
+					describe(sb, after.getLocation(), after.getResultStatus(), after.getDurationNanos(),
+					         after.getErrorMessage());
+				}
+				for (EmbeddedItem item : scenario.getEmbeddedItems()) {
+					sb.append("\n  Embedded ").append(item.getMimetype()).append(' ').append(item.getFilename());
+					sb.append(' ').append(item.getHash());
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+
+	private static void counts(StringBuilder sb, TestResult result) {
+		sb.append(result.getPassCount()).append('/').append(result.getFailCount()).append('/');
+		sb.append(result.getSkipCount()).append('/').append(result.getDuration());
+	}
+
+
+	private static void describe(StringBuilder sb, StepResult step) {
+		sb.append("\n  Step");
+		describe(sb, step.getStatement());
+		List<Statement.Row> rows = step.getStatement().getRows();
+		if (rows != null) {
+			for (Statement.Row row : rows) {
+				sb.append("\n   Row ").append(row.getLine()).append(' ').append(row.getCells());
+				describe(sb, row.getComments());
+			}
+		}
+		describe(sb, step.getLocation(), step.getResultStatus(), step.getDurationNanos(), step.getErrorMessage());
+	}
+
+
+	private static void describe(StringBuilder sb, String location, ResultStatus status, long duration,
+	                             String errorMessage) {
+		sb.append("\n   Match ").append(location);
+		sb.append("\n   Result ").append(status).append(' ').append(duration).append(' ').append(errorMessage);
+	}
+
+
+	private static void describe(StringBuilder sb, Statement statement) {
+		sb.append(' ').append(statement.getKeyword()).append(statement.getName()).append(':');
+		sb.append(statement.getLine()).append(' ').append(statement.getDescription());
+		sb.append(' ').append(statement.getId());
+		for (Statement.Line tag : statement.getTags()) {
+			sb.append(' ').append(tag.getText()).append(':').append(tag.getLine());
+		}
+		describe(sb, statement.getComments());
+	}
+
+
+	private static void describe(StringBuilder sb, List<Statement.Line> comments) {
+		for (Statement.Line comment : comments) {
+			sb.append(" #").append(comment.getText()).append(':').append(comment.getLine());
+		}
+	}
+}
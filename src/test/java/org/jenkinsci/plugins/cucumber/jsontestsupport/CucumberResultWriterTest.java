@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CucumberResultWriterTest {
+
+	private final CucumberResultWriter writer = new CucumberResultWriter(4);
+
+
+	@Test(timeout = 10000)
+	public void testWritesLatestResultInOrder() throws Exception {
+		CucumberTestResult first = new CucumberTestResult();
+		CucumberTestResult second = new CucumberTestResult();
+		CucumberTestResult third = new CucumberTestResult();
+		BlockingPersister persister = new BlockingPersister();
+
+		writer.write("job#1", first, persister);
+		persister.started.await();
+		// first is being written, so second is queued and then replaced by third before it starts
+		writer.write("job#1", second, persister);
+		writer.write("job#1", third, persister);
+		assertThat(writer.getPending("job#1"), sameInstance(third));
+
+		persister.release.countDown();
+		assertThat(writer.flush("job#1"), nullValue());
+		assertThat(persister.written, is((List<CucumberTestResult>) list(first, third)));
+		assertThat(writer.getPending("job#1"), nullValue());
+	}
+
+
+	@Test(timeout = 10000)
+	public void testFlushReportsFailure() throws Exception {
+		final IOException failure = new IOException("disk full");
+		writer.write("job#1", new CucumberTestResult(), new CucumberResultWriter.Persister() {
+			public void persist(CucumberTestResult result) throws IOException {
+				throw failure;
+			}
+		});
+		assertThat(writer.flush("job#1"), sameInstance(failure));
+		assertThat(writer.flush("job#2"), nullValue());
+	}
+
+
+	@Test(timeout = 10000)
+	public void testBuildWritesWhenQueueIsFull() throws Exception {
+		BlockingPersister persister = new BlockingPersister();
+		writer.write("job#0", new CucumberTestResult(), persister);
+		persister.started.await();
+		for (int i = 1; i <= 4; i++) {
+			writer.write("job#" + i, new CucumberTestResult(), persister);
+		}
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+		writer.write("job#5", new CucumberTestResult(), new CucumberResultWriter.Persister() {
+			public void persist(CucumberTestResult result) {
+				threads.add(Thread.currentThread());
+			}
+		});
+		assertThat(threads, is(Collections.singletonList(Thread.currentThread())));
+		persister.release.countDown();
+		for (int i = 0; i <= 4; i++) {
+			assertThat(writer.flush("job#" + i), nullValue());
+		}
+	}
+
+
+	@Test(timeout = 10000)
+	public void testFlushAllWritesPendingResults() throws Exception {
+		CucumberTestResult first = new CucumberTestResult();
+		CucumberTestResult second = new CucumberTestResult();
+		CucumberTestResult third = new CucumberTestResult();
+		final BlockingPersister persister = new BlockingPersister();
+
+		writer.write("job#1", first, persister);
+		persister.started.await();
+		writer.write("job#1", second, persister);
+		writer.write("job#2", third, persister);
+		new Thread() {
+			@Override
+			public void run() {
+				persister.release.countDown();
+			}
+		}.start();
+		writer.flushAll();
+		assertThat(persister.written, is((List<CucumberTestResult>) list(first, second, third)));
+		assertThat(writer.getPending("job#1"), nullValue());
+		assertThat(writer.getPending("job#2"), nullValue());
+	}
+
+
+	private static List<CucumberTestResult> list(CucumberTestResult... results) {
+		List<CucumberTestResult> list = new ArrayList<CucumberTestResult>();
+		Collections.addAll(list, results);
+		return list;
+	}
+
+	private static class BlockingPersister implements CucumberResultWriter.Persister {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<CucumberTestResult> written = Collections.synchronizedList(new ArrayList<CucumberTestResult>());
+
+
+		public void persist(CucumberTestResult result) throws IOException {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			written.add(result);
+		}
+	}
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.model.TaskListener;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsCollectionContaining.hasItem;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CucumberTestResultTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File[] reports;
+	private File embedDir;
+	private TaskListener listener;
+
+
+	@Before
+	public void setup() throws Exception {
+		File dir = new File(CucumberTestResultTest.class.getResource("ScenarioResultTest").toURI());
+		reports = dir.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.endsWith(".json");
+			}
+		});
+		Arrays.sort(reports);
+		Assert.assertTrue("no reports found", reports.length > 1);
+		embedDir = tmp.newFolder("embed");
+		listener = Mockito.mock(TaskListener.class);
+		Mockito.when(listener.getLogger()).thenReturn(System.out);
+	}
+
+
+	@Test
+	public void testMergeLeavesResultUnchanged() throws Exception {
+		CucumberTestResult original = parse(reports[0]);
+		String before = summarize(original);
+		List<FeatureResult> features = new ArrayList<FeatureResult>(original.getFeatures());
+
+		CucumberTestResult merged = original.merge(parse(reports[1]));
+
+		assertThat(summarize(original), is(before));
+		assertThat(new ArrayList<FeatureResult>(original.getFeatures()), is(features));
+		// the features that were already there are shared
+		assertThat(merged.getFeatureResult(0), sameInstance(features.get(0)));
+		assertThat(merged.getFeatures().size(), is(features.size() + parse(reports[1]).getFeatures().size()));
+	}
+
+
+	@Test
+	public void testSharedFeaturesBelongToPublishedResult() throws Exception {
+		CucumberTestResult original = parse(reports[0]);
+		original.publish();
+		FeatureResult shared = original.getFeatureResult(0);
+		TagResult tag = original.getTagMap().values().iterator().next();
+
+		CucumberTestResult discarded = original.merge(parse(reports[1]));
+		CucumberTestResult merged = original.merge(parse(reports[1]));
+		// until the merged result is published the shared features and tags are left with the original
+		assertThat(shared.getParent(), sameInstance((Object) original));
+		assertThat(tag.getParent(), sameInstance((Object) original));
+		FeatureResult added = merged.getFeatureResult(merged.getFeatures().size() - 1);
+		assertThat(added.getParent(), sameInstance((Object) merged));
+
+		merged.publish();
+		assertThat(shared.getParent(), sameInstance((Object) merged));
+		assertThat(discarded.getFeatureResult(0).getParent(), sameInstance((Object) merged));
+		assertThat(discarded.getFeatureResult(discarded.getFeatures().size() - 1).getParent(),
+		           sameInstance((Object) discarded));
+		if (merged.getTagMap().get(tag.getName()) == tag) {
+			assertThat(tag.getParent(), sameInstance((Object) merged));
+		}
+
+		// and on to the next merge
+		CucumberTestResult next = merged.merge(parse(reports[1]));
+		next.publish();
+		assertThat(shared.getParent(), sameInstance((Object) next));
+		assertThat(added.getParent(), sameInstance((Object) next));
+	}
+
+
+	@Test
+	public void testMergeIsSameAsTally() throws Exception {
+		CucumberTestResult merged = parse(reports[0]);
+		CucumberTestResult tallied = new CucumberTestResult();
+		for (File report : reports) {
+			if (report != reports[0]) {
+				merged = merged.merge(parse(report));
+			}
+			new CucumberJSONBinder(tallied, listener, false, embedDir).parse(report);
+		}
+		tallied.tally();
+		assertThat(summarize(merged), is(summarize(tallied)));
+		assertThat(names(merged), is(names(tallied)));
+		// and they can be found by those names
+		for (FeatureResult feature : merged.getFeatures()) {
+			assertThat(merged.getDynamic(feature.getSafeName(), null, null), sameInstance((Object) feature));
+			for (ScenarioResult scenario : feature.getChildren()) {
+				assertThat(feature.getDynamic(scenario.getSafeName(), null, null), sameInstance((Object) scenario));
+			}
+		}
+	}
+
+
+	@Test
+	public void testMergeKeepsTagsUpToDate() throws Exception {
+		// the same report twice gives every tag scenarios from both results
+		CucumberTestResult merged = parse(reports[0]);
+		for (File report : reports) {
+			merged = merged.merge(parse(report));
+		}
+		String summary = summarize(merged);
+		merged.tally();
+		assertThat(summary, is(summarize(merged)));
+	}
+
+
+	@Test
+	public void testParallelTallyIsSameAsSequential() throws Exception {
+		CucumberTestResult sequential = new CucumberTestResult();
+		CucumberTestResult parallel = new CucumberTestResult();
+		for (int i = 0; i < 3; i++) {
+			for (File report : reports) {
+				new CucumberJSONBinder(sequential, listener, false, embedDir).parse(report);
+				new CucumberJSONBinder(parallel, listener, false, embedDir).parse(report);
+			}
+		}
+		sequential.tally(Integer.MAX_VALUE);
+		parallel.tally(0);
+		assertThat(summarize(parallel), is(summarize(sequential)));
+		assertThat(parallel.getDuration(), is(sequential.getDuration()));
+		assertThat(names(parallel), is(names(sequential)));
+		assertThat(names(parallel), hasItem("basic-arithmetic_3"));
+	}
+
+
+	private static List<String> names(CucumberTestResult result) {
+		List<String> names = new ArrayList<String>();
+		for (FeatureResult feature : result.getFeatures()) {
+			names.add(feature.getSafeName());
+			for (ScenarioResult scenario : feature.getChildren()) {
+				names.add(scenario.getSafeName());
+			}
+		}
+		return names;
+	}
+
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testFeaturesAreReadOnly() throws Exception {
+		parse(reports[0]).getFeatures().clear();
+	}
+
+
+	@Test
+	public void testSharesBackgroundDefinition() throws Exception {
+		int shared = 0;
+		for (File report : reports) {
+			CucumberTestResult result = parse(report);
+			shared += assertBackgroundShared(result);
+			// the shared definition is written once and read back shared
+			XStream xstream = new XStream(new DomDriver());
+			assertBackgroundShared((CucumberTestResult) xstream.fromXML(xstream.toXML(result)));
+			File directory = tmp.newFolder();
+			CucumberResultCodec.write(result, directory);
+			assertBackgroundShared(CucumberResultCodec.read(directory));
+		}
+		assertThat(shared, greaterThan(0));
+	}
+
+
+	/**
+	 * Checks that the definition of each background is shared with the scenario before it if they are the same.
+	 *
+	 * @return the number of backgrounds that are shared.
+	 */
+	private static int assertBackgroundShared(CucumberTestResult result) {
+		int shared = 0;
+		for (FeatureResult feature : result.getFeatures()) {
+			List<Statement> previous = null;
+			for (ScenarioResult scenario : feature.getChildren()) {
+				BackgroundResult background = scenario.getBackgroundResult();
+				if (background == null) {
+					continue;
+				}
+				List<Statement> definition = new ArrayList<Statement>();
+				definition.add(background.getStatement());
+				for (StepResult step : background.getStepResults()) {
+					definition.add(step.getStatement());
+				}
+				if (definition.equals(previous)) {
+					for (int i = 0; i < definition.size(); i++) {
+						assertThat(definition.get(i), sameInstance(previous.get(i)));
+					}
+					shared++;
+				}
+				previous = definition;
+			}
+		}
+		return shared;
+	}
+
+
+	@Test
+	public void testConvertsGherkinModelOfOlderVersions() throws Exception {
+		String xml = "<org.jenkinsci.plugins.cucumber.jsontestsupport.StepResult>"
+		             + "<step><comments/><keyword>Given </keyword><name>a step</name><line>3</line></step>"
+		             + "<match><location>Steps.aStep()</location></match>"
+		             + "<result><status>failed</status><duration>1500000000</duration>"
+		             + "<error__message>boom</error__message></result>"
+		             + "</org.jenkinsci.plugins.cucumber.jsontestsupport.StepResult>";
+		StepResult step = (StepResult) new XStream(new DomDriver()).fromXML(xml);
+
+		assertThat(step.getStatement().getKeyword(), is("Given "));
+		assertThat(step.getStatement().getName(), is("a step"));
+		assertThat(step.getStatement().getLine(), is(3));
+		assertThat(step.getLocation(), is("Steps.aStep()"));
+		assertThat(step.getResultStatus(), is(ResultStatus.FAILED));
+		assertThat(step.getErrorMessage(), is("boom"));
+		assertThat(step.getDurationNanos(), is(1500000000L));
+		assertThat(step.getFailCount(), is(1));
+	}
+
+
+	private CucumberTestResult parse(File report) throws Exception {
+		CucumberTestResult result = new CucumberTestResult();
+		new CucumberJSONBinder(result, listener, false, embedDir).parse(report);
+		result.tally();
+		return result;
+	}
+
+
+	/** The counts of the result and its tags, durations are left out as they are summed in a different order. */
+	private static String summarize(CucumberTestResult result) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(result.getPassCount()).append('/').append(result.getFailCount()).append('/');
+		sb.append(result.getSkipCount()).append(" failed:").append(result.getFailedTests().size());
+		for (FeatureResult feature : result.getFeatures()) {
+			sb.append("\nFeature ").append(feature.getURI()).append(' ').append(feature.getPassCount()).append('/');
+			sb.append(feature.getFailCount()).append('/').append(feature.getSkipCount());
+		}
+		for (String tag : new TreeSet<String>(result.getTagMap().keySet())) {
+			TagResult tr = result.getTagMap().get(tag);
+			sb.append("\nTag ").append(tag).append(' ').append(tr.getPassCount()).append('/');
+			sb.append(tr.getFailCount()).append('/').append(tr.getSkipCount()).append(' ');
+			sb.append(tr.getChildren().size()).append(' ').append(tr.getFailedTests().size());
+		}
+		return sb.toString();
+	}
+}
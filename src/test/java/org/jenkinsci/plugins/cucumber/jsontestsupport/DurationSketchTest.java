@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class DurationSketchTest {
+
+	private static final double[] QUANTILES = { 0, 0.25, 0.5, 0.95, 0.99, 1 };
+
+
+	@Test
+	public void testQuantilesAreWithinAccuracy() {
+		Random random = new Random(42);
+		List<Float> durations = new ArrayList<Float>();
+		DurationSketch sketch = new DurationSketch();
+		for (int i = 0; i < 1000; i++) {
+			// from a millisecond to a few minutes
+			float duration = (float) Math.exp(random.nextDouble() * 12 - 6.9);
+			durations.add(Float.valueOf(duration));
+			sketch.add(duration);
+		}
+		assertThat(sketch.getCount(), is(1000));
+		assertQuantiles(sketch, durations);
+	}
+
+
+	@Test
+	public void testRemovedDurationsAreForgotten() {
+		DurationSketch sketch = new DurationSketch();
+		List<Float> kept = new ArrayList<Float>();
+		for (int i = 1; i <= 100; i++) {
+			sketch.add(i / 10f);
+			if (i % 3 == 0) {
+				sketch.remove(i / 10f);
+			}
+			else {
+				kept.add(Float.valueOf(i / 10f));
+			}
+		}
+		assertThat(sketch.getCount(), is(kept.size()));
+		assertQuantiles(sketch, kept);
+		for (Float duration : kept) {
+			sketch.remove(duration.floatValue());
+		}
+		assertThat(sketch.getCount(), is(0));
+		assertThat(sketch.getQuantile(0.5), is(0f));
+	}
+
+
+	@Test
+	public void testMergeIsSameAsAdding() {
+		DurationSketch a = new DurationSketch();
+		DurationSketch b = new DurationSketch();
+		List<Float> all = new ArrayList<Float>();
+		for (int i = 0; i < 50; i++) {
+			a.add(i / 7f);
+			b.add(i / 3f);
+			all.add(Float.valueOf(i / 7f));
+			all.add(Float.valueOf(i / 3f));
+		}
+		DurationSketch merged = new DurationSketch(a);
+		merged.merge(b);
+		assertThat(merged.getCount(), is(100));
+		assertQuantiles(merged, all);
+		// the sketch that was copied is unchanged
+		assertThat(a.getCount(), is(50));
+	}
+
+
+	@Test
+	public void testTinyDurationsAreZero() {
+		DurationSketch sketch = new DurationSketch();
+		sketch.add(0f);
+		sketch.add(0.0001f);
+		sketch.add(2f);
+		assertThat(sketch.getQuantile(0), is(0f));
+		assertThat(sketch.getQuantile(0.5), is(0f));
+		assertThat((double) sketch.getQuantile(1), closeTo(2, 0.02));
+	}
+
+
+	private static void assertQuantiles(DurationSketch sketch, List<Float> durations) {
+		List<Float> sorted = new ArrayList<Float>(durations);
+		Collections.sort(sorted);
+		for (double quantile : QUANTILES) {
+			double expected = sorted.get((int) (quantile * (sorted.size() - 1))).floatValue();
+			assertThat("quantile " + quantile, (double) sketch.getQuantile(quantile),
+			           closeTo(expected, expected * DurationSketch.RELATIVE_ACCURACY));
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class EmbeddedItemStoreTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+
+	@Test
+	public void testSweepRemovesItemsNoBuildRefersTo() throws Exception {
+		EmbeddedItemStore store = new EmbeddedItemStore(tmp.getRoot());
+		File builds = tmp.newFolder("builds");
+		File build1 = new File(builds, "1");
+		File build2 = new File(builds, "2");
+		String shared = add(store, "shared");
+		String only1 = add(store, "only in 1");
+		String only2 = add(store, "only in 2");
+
+		assertThat(store.reference(build1, Arrays.asList(shared, only1)).isEmpty(), is(true));
+		assertThat(store.reference(build2, Arrays.asList(shared)).isEmpty(), is(true));
+		// a merged result adds to what the build refers to
+		store.reference(build2, Arrays.asList(only2));
+
+		assertThat(store.sweep(builds, build1), is(1));
+		assertThat(store.contains(only1), is(false));
+		assertThat(store.contains(shared), is(true));
+		assertThat(store.contains(only2), is(true));
+		// items that are no longer stored are missing for the next build that refers to them
+		assertThat(store.reference(new File(builds, "3"), Arrays.asList(only1)),
+		           is(Collections.singleton(only1)));
+	}
+
+
+	@Test
+	public void testSweepIgnoresBuildsWithoutReferences() throws Exception {
+		EmbeddedItemStore store = new EmbeddedItemStore(tmp.getRoot());
+		File builds = tmp.newFolder("builds");
+		File build1 = new File(builds, "1");
+		String item = add(store, "item");
+		store.reference(build1, Arrays.asList(item));
+		// archived before the store, with the embedded items in the build
+		File legacy = new File(builds, "2/cucumber/embed/foo/bar/item.txt");
+		FileUtils.writeStringToFile(legacy, "item", "UTF-8");
+		assertThat(new File(builds, "2/cucumberResult").mkdirs(), is(true));
+
+		assertThat(store.sweep(builds, build1), is(1));
+		assertThat(store.contains(item), is(false));
+		assertThat(legacy.isFile(), is(true));
+	}
+
+
+	private String add(EmbeddedItemStore store, String content) throws Exception {
+		File file = tmp.newFile();
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		String hash = EmbeddedItemStore.hash(file);
+		store.add(file, hash);
+		return hash;
+	}
+}
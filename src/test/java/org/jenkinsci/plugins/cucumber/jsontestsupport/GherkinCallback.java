@@ -43,7 +43,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * The implementation that gets called back by the Gherkin parser.
+ * The implementation that gets called back by the Gherkin parser. The plugin binds reports with
+ * {@link CucumberJSONBinder}, this is kept as the reference it is checked and benchmarked against.
  * 
  * @author James Nord
  */
@@ -52,6 +53,8 @@ class GherkinCallback implements Formatter, Reporter {
 	private static final Logger LOG = Logger.getLogger(GherkinCallback.class.getName());
 	private boolean ignoreBadSteps = false;
 	private TaskListener listener = null;
+	/** Where to write embedded items, <code>null</code> for the temporary directory. */
+	private File embedDirectory = null;
 
 	private FeatureResult currentFeatureResult = null;
 	private ScenarioResult currentScenarioResult = null;
@@ -63,6 +66,8 @@ class GherkinCallback implements Formatter, Reporter {
 	private String currentURI = null;
 
 	private CucumberTestResult testResult;
+	/** shares the strings of everything parsed by this callback. */
+	private final StringTable strings = new StringTable();
 
 
 	GherkinCallback(CucumberTestResult testResult) {
@@ -76,6 +81,12 @@ class GherkinCallback implements Formatter, Reporter {
 		this.ignoreBadSteps = ignoreBadSteps;
 	}
 
+
+	GherkinCallback(CucumberTestResult testResult, TaskListener listener, boolean ignoreBadSteps, File embedDirectory){
+		this(testResult, listener, ignoreBadSteps);
+		this.embedDirectory = embedDirectory;
+	}
+
 	// Formatter implementation
 
 	// called before a feature to identify the feature
@@ -99,7 +110,7 @@ class GherkinCallback implements Formatter, Reporter {
 			LOG.log(Level.FINE, "         " + feature.getDescription());
 		}
 		// a new feature being received signals the end of the previous feature
-		currentFeatureResult = new FeatureResult(currentURI, feature);
+		currentFeatureResult = new FeatureResult(strings.get(currentURI), Statement.of(feature, strings));
 		currentURI = null;
 		testResult.addFeatureResult(currentFeatureResult);
 	}
@@ -112,7 +123,7 @@ class GherkinCallback implements Formatter, Reporter {
 			LOG.log(Level.SEVERE, "Background: {" + background.getName() + "} received before previous background: {" + currentBackground.getName()+ "} handled");
 			throw new CucumberModelException("Background: {" + background.getName() + "} received before previous background: {" + currentBackground.getName()+ "} handled");
 		}
-		currentBackground = new BackgroundResult(background);
+		currentBackground = new BackgroundResult(Statement.of(background, strings));
 	}
 
 
@@ -127,7 +138,7 @@ class GherkinCallback implements Formatter, Reporter {
 			LOG.log(Level.FINE, "          " + scenario.getComments());
 		}
 		// a new scenario signifies that the previous scenario has been handled.
-		currentScenarioResult = new ScenarioResult(scenario, currentBackground);
+		currentScenarioResult = new ScenarioResult(Statement.of(scenario, strings), currentBackground);
 		currentBackground = null;
 		currentFeatureResult.addScenarioResult(currentScenarioResult);
 	}
@@ -218,7 +229,7 @@ class GherkinCallback implements Formatter, Reporter {
 			LOG.log(Level.FINE, "rep        result : " + result.getErrorMessage());
 			LOG.log(Level.FINE, "rep        result : " + result.getError());
 		}
-		currentScenarioResult.addBeforeResult(new BeforeAfterResult(match, result));
+		currentScenarioResult.addBeforeResult(new BeforeAfterResult(match, result, strings));
 	}
 
 
@@ -230,7 +241,7 @@ class GherkinCallback implements Formatter, Reporter {
 			LOG.log(Level.FINE, "rep          " + result.getErrorMessage());
 			LOG.log(Level.FINE, "rep          " + result.getError());
 		}
-		StepResult stepResult = new StepResult(currentStep, currentMatch, result);
+		StepResult stepResult = new StepResult(currentStep, currentMatch, result, strings);
 		if (currentBackground != null) {
 			currentBackground.addStepResult(stepResult);
 		}
@@ -251,7 +262,7 @@ class GherkinCallback implements Formatter, Reporter {
 			LOG.log(Level.FINE, "rep        result : " + result.getErrorMessage());
 			LOG.log(Level.FINE, "rep        result : " + result.getError());
 		}
-		currentScenarioResult.addAfterResult(new BeforeAfterResult(match, result));
+		currentScenarioResult.addAfterResult(new BeforeAfterResult(match, result, strings));
 	}
 
 
@@ -272,8 +283,7 @@ class GherkinCallback implements Formatter, Reporter {
 	public void embedding(String mimeType, byte[] data) {
 		LOG.log(Level.FINE, "rep  embedding: {0}", mimeType);
 		try {
-			File f = CucumberUtils.createEmbedFile(data);
-			EmbeddedItem embed = new EmbeddedItem(mimeType, f.getName());
+			EmbeddedItem embed = CucumberUtils.createEmbeddedItem(embedDirectory, mimeType, data);
 			currentScenarioResult.addEmbeddedItem(embed);
 		}
 		catch (IOException ex) {
@@ -0,0 +1,384 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 James Nord
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.cucumber.jsontestsupport;
+
+import hudson.model.TaskListener;
+import hudson.tasks.junit.CaseResult.Status;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+import org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberDurationAction.DurationRegression;
+import org.jenkinsci.plugins.cucumber.jsontestsupport.CucumberFlakinessAction.FlakyScenario;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ScenarioHistoryTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File file;
+	private CucumberTestResult result;
+	private List<ScenarioResult> scenarios;
+	private TaskListener listener;
+
+
+	@Before
+	public void setup() throws Exception {
+		file = new File(tmp.getRoot(), ScenarioHistory.FILE);
+		File report = new File(ScenarioHistoryTest.class.getResource("ScenarioResultTest/backgroundFailure.json").toURI());
+		listener = Mockito.mock(TaskListener.class);
+		Mockito.when(listener.getLogger()).thenReturn(System.out);
+		result = new CucumberTestResult();
+		new CucumberJSONBinder(result, listener, false, tmp.newFolder("embed")).parse(report);
+		result.tally();
+		scenarios = new ArrayList<ScenarioResult>();
+		for (FeatureResult feature : result.getFeatures()) {
+			scenarios.addAll(feature.getChildren());
+		}
+		Assert.assertFalse("no failed scenarios", result.getFailedTests().isEmpty());
+	}
+
+
+	@Test
+	public void testReadsRecordedBuilds() throws Exception {
+		ScenarioHistory history = new ScenarioHistory(file);
+		history.record(1, result);
+		history.record(2, result);
+
+		ScenarioHistory read = new ScenarioHistory(file);
+		assertThat(read.getStart(), is(1));
+		for (ScenarioResult scenario : scenarios) {
+			assertThat(read.getPrevious(scenario.getId(), 1), nullValue());
+			ScenarioHistory.Record previous = read.getPrevious(scenario.getId(), 2);
+			assertThat(previous.getBuild(), is(1));
+			assertThat(previous.isPassed(), is(scenario.isPassed()));
+			assertThat(previous.isSkipped(), is(scenario.getSkipCount() > 0));
+			assertThat(previous.getDuration(), is(scenario.getDuration()));
+			assertThat(read.getPrevious(scenario.getId(), 5).getBuild(), is(2));
+		}
+		assertThat(read.getPrevious("no/such/scenario", 5), nullValue());
+	}
+
+
+	@Test
+	public void testRemovesDeletedBuilds() throws Exception {
+		ScenarioHistory history = new ScenarioHistory(file);
+		history.record(1, result);
+		history.record(2, result);
+		history.record(3, result);
+		long length = file.length();
+		history.remove(2);
+
+		ScenarioHistory read = new ScenarioHistory(file);
+		for (ScenarioResult scenario : scenarios) {
+			assertThat(read.getPrevious(scenario.getId(), 3).getBuild(), is(1));
+		}
+		// the removed build is dropped when the history is read
+		assertThat(file.length(), lessThan(length));
+		assertThat(new ScenarioHistory(file).getPrevious(scenarios.get(0).getId(), 3).getBuild(), is(1));
+	}
+
+
+	@Test
+	public void testIgnoresPartlyWrittenBuild() throws Exception {
+		ScenarioHistory history = new ScenarioHistory(file);
+		history.record(1, result);
+		history.record(2, result);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(raf.length() - 3);
+		}
+		finally {
+			raf.close();
+		}
+
+		ScenarioHistory read = new ScenarioHistory(file);
+		String id = scenarios.get(0).getId();
+		assertThat(read.getPrevious(id, 3).getBuild(), is(1));
+		read.record(3, result);
+
+		read = new ScenarioHistory(file);
+		assertThat(read.getPrevious(id, 3).getBuild(), is(1));
+		assertThat(read.getPrevious(id, 4).getBuild(), is(3));
+	}
+
+
+	@Test
+	public void testCountsFlipsOverWindow() throws Exception {
+		CucumberTestResult failing = parse("cucumber-embedded-item.json");
+		CucumberTestResult passing = parse("pending.json");
+		String id = failing.getFailedTests().iterator().next().getId();
+		ScenarioHistory history = new ScenarioHistory(file, 4, ScenarioHistory.BUILDS);
+		for (int build = 1; build <= 5; build++) {
+			history.record(build, build % 2 == 0 ? passing : failing);
+		}
+		assertFlips(history.getFlakiest(10), id, 4, 4);
+		assertFlips(new ScenarioHistory(file, 4, ScenarioHistory.BUILDS).getFlakiest(10), id, 4, 4);
+
+		history.record(6, failing);
+		history.record(7, failing);
+		assertFlips(history.getFlakiest(10), id, 2, 4);
+		assertFlips(new ScenarioHistory(file, 4, ScenarioHistory.BUILDS).getFlakiest(10), id, 2, 4);
+
+		// settles down once the flips leave the window
+		history.record(8, failing);
+		history.record(9, failing);
+		assertThat(history.getFlakiest(10), empty());
+		assertThat(new ScenarioHistory(file, 4, ScenarioHistory.BUILDS).getFlakiest(10), empty());
+	}
+
+
+	@Test
+	public void testCountsFlipsAgainWhenBuildsChange() throws Exception {
+		CucumberTestResult failing = parse("cucumber-embedded-item.json");
+		CucumberTestResult passing = parse("pending.json");
+		String id = failing.getFailedTests().iterator().next().getId();
+		ScenarioHistory history = new ScenarioHistory(file, 4, ScenarioHistory.BUILDS);
+		history.record(1, failing);
+		history.record(3, failing);
+		assertThat(history.getFlakiest(10), empty());
+
+		// a build that completes out of order
+		history.record(2, passing);
+		assertFlips(history.getFlakiest(10), id, 2, 3);
+
+		history.remove(2);
+		assertThat(history.getFlakiest(10), empty());
+		history.record(2, passing);
+		assertThat(history.getFlakiest(0), empty());
+
+		// a scenario that is no longer run drops out
+		for (int build = 4; build <= 6; build++) {
+			history.record(build, result);
+		}
+		assertFlips(history.getFlakiest(10), id, 2, 3);
+		history.record(7, result);
+		assertThat(history.getFlakiest(10), empty());
+	}
+
+
+	@Test
+	public void testKeepsLatestBuilds() throws Exception {
+		String id = scenarios.get(0).getId();
+		// never fewer than the window needs
+		ScenarioHistory history = new ScenarioHistory(file, 2, 1);
+		for (int build = 1; build <= 3; build++) {
+			history.record(build, result);
+		}
+		long length = file.length();
+		assertThat(history.getStart(), is(1));
+		for (int build = 4; build <= 20; build++) {
+			history.record(build, result);
+		}
+		history.remove(19);
+		assertThat(history.getStart(), is(18));
+		assertThat(history.countRecords(id, 0, Integer.MAX_VALUE), is(2));
+		assertThat(history.getPrevious(id, 18), nullValue());
+		// the builds that dropped out are rewritten away
+		assertThat(file.length(), lessThan(2 * length));
+
+		ScenarioHistory read = new ScenarioHistory(file, 2, 3);
+		assertThat(read.getStart(), is(18));
+		assertThat(builds(read.getRecords(id, 0, Integer.MAX_VALUE, 0, 10)), is(Arrays.asList(20, 18)));
+	}
+
+
+	@Test
+	public void testPagesPastWindow() throws Exception {
+		String id = scenarios.get(0).getId();
+		ScenarioHistory history = new ScenarioHistory(file, 2, 10);
+		for (int build = 1; build <= 12; build++) {
+			history.record(build, result);
+		}
+		assertThat(history.getStart(), is(3));
+		assertThat(history.countRecords(id, 0, Integer.MAX_VALUE), is(10));
+		assertThat(builds(history.getRecords(id, 0, Integer.MAX_VALUE, 5, 10)), is(Arrays.asList(7, 6, 5, 4, 3)));
+		assertThat(history.getPrevious(id, 4).getBuild(), is(3));
+		assertThat(builds(new ScenarioHistory(file, 2, 10).getRecords(id, 0, 5, 0, 10)), is(Arrays.asList(5, 4, 3)));
+	}
+
+
+	@Test
+	public void testOrdersFlakiestFirst() throws Exception {
+		ScenarioHistory.Record last = new ScenarioHistory.Record(1, (byte) 0, 0f, 0);
+		FlakyScenario a = new FlakyScenario("a", 2, 4, last);
+		FlakyScenario b = new FlakyScenario("b", 3, 4, last);
+		FlakyScenario c = new FlakyScenario("c", 2, 2, last);
+		FlakyScenario d = new FlakyScenario("d", 4, 4, last);
+		List<FlakyScenario> sorted = new ArrayList<FlakyScenario>(Arrays.asList(a, b, c, d));
+		Collections.sort(sorted, Collections.reverseOrder(FlakyScenario.LEAST_FLAKY_FIRST));
+		assertThat(sorted, is(Arrays.asList(d, c, b, a)));
+		assertThat(c.getFlipPercentage(), is(100));
+		assertThat(b.getFlipPercentage(), is(75));
+	}
+
+
+	@Test
+	public void testFindsDurationRegressions() throws Exception {
+		ScenarioHistory history = new ScenarioHistory(file, 4, ScenarioHistory.BUILDS);
+		for (int build = 1; build <= 5; build++) {
+			setDurations(1f, null, 0f);
+			history.record(build, result);
+		}
+		ScenarioResult slower = scenarios.get(scenarios.size() - 1);
+		setDurations(1.5f, slower, 3f);
+		// not enough earlier durations to go by
+		assertThat(history.getDurationRegressions(2f, 5), empty());
+		history.record(6, result);
+		assertThat(history.getDurationRegressions(2f, 5), empty());
+
+		List<DurationRegression> regressions = history.getDurationRegressions(2f, 4);
+		assertThat(regressions.size(), is(1));
+		DurationRegression regression = regressions.get(0);
+		assertThat(regression.getId(), is(slower.getId()));
+		assertThat(regression.getBuild(), is(6));
+		assertThat(regression.getDuration(), is(3f));
+		assertThat((double) regression.getP95(), closeTo(1, 0.01));
+		assertThat(new ScenarioHistory(file, 4, ScenarioHistory.BUILDS).getDurationRegressions(2f, 4).size(), is(1));
+		assertThat(history.getDurationRegressions(1.4f, 4).size(), is(scenarios.size()));
+
+		// only the builds in the window before the latest count
+		for (int build = 7; build <= 10; build++) {
+			history.record(build, result);
+		}
+		assertThat(history.getDurationRegressions(2f, 4), empty());
+		assertThat(history.getDurationRegressions(1.4f, 4), empty());
+	}
+
+
+	@Test
+	public void testMergesDurationsOfFeatures() throws Exception {
+		ScenarioHistory history = new ScenarioHistory(file, 4, ScenarioHistory.BUILDS);
+		for (int build = 1; build <= 3; build++) {
+			setDurations(build, null, 0f);
+			history.record(build, result);
+		}
+		SortedMap<String, DurationSketch> features = history.getFeatureDurations();
+		assertThat(features.keySet(), is((Set<String>) new TreeSet<String>(featureIds())));
+		for (FeatureResult feature : result.getFeatures()) {
+			DurationSketch sketch = features.get(feature.getId());
+			assertThat(sketch.getCount(), is(2 * feature.getChildren().size()));
+			assertThat((double) sketch.getQuantile(0), closeTo(1, 0.01));
+			assertThat((double) sketch.getQuantile(1), closeTo(2, 0.02));
+		}
+	}
+
+
+	@Test
+	public void testGetsPagesOfRecords() throws Exception {
+		CucumberTestResult failing = parse("cucumber-embedded-item.json");
+		CucumberTestResult passing = parse("pending.json");
+		String id = failing.getFailedTests().iterator().next().getId();
+		ScenarioHistory history = new ScenarioHistory(file);
+		for (int build = 1; build <= 7; build++) {
+			history.record(build, build % 2 == 0 ? passing : failing);
+		}
+		history.remove(4);
+		assertThat(history.countRecords(id, 0, Integer.MAX_VALUE), is(6));
+		assertThat(history.countRecords(id, 3, 6), is(3));
+		assertThat(history.countRecords(id, 6, 3), is(0));
+		assertThat(history.countRecords("no/such/scenario", 0, Integer.MAX_VALUE), is(0));
+		assertThat(builds(history.getRecords(id, 0, Integer.MAX_VALUE, 0, 4)), is(Arrays.asList(7, 6, 5, 3)));
+		assertThat(builds(history.getRecords(id, 0, Integer.MAX_VALUE, 4, 4)), is(Arrays.asList(2, 1)));
+		assertThat(builds(history.getRecords(id, 2, 6, 1, 10)), is(Arrays.asList(5, 3, 2)));
+
+		ScenarioHistoryView.Page page = new ScenarioHistoryView(failing.getFailedTests().iterator().next())
+		      .getPage(history, 3, 6, 1);
+		assertThat(page.getTotal(), is(3));
+		assertThat(page.getFrom(), is(3));
+		assertThat(page.getQuery(2), is("?page=2&from=3&to=6"));
+		List<Status> statuses = new ArrayList<Status>();
+		for (ScenarioHistoryView.Entry entry : page.getEntries()) {
+			statuses.add(entry.getStatus());
+		}
+		// the status of the earliest is against the build before the range
+		assertThat(statuses, is(Arrays.asList(Status.SKIPPED, Status.FAILED, Status.REGRESSION)));
+	}
+
+
+	private static List<Integer> builds(List<ScenarioHistory.Record> records) {
+		List<Integer> builds = new ArrayList<Integer>();
+		for (ScenarioHistory.Record record : records) {
+			builds.add(record.getBuild());
+		}
+		return builds;
+	}
+
+
+	private List<String> featureIds() {
+		List<String> ids = new ArrayList<String>();
+		for (FeatureResult feature : result.getFeatures()) {
+			ids.add(feature.getId());
+		}
+		return ids;
+	}
+
+
+	/**
+	 * Sets the duration of every scenario, other than the given one which gets a duration of its own.
+	 */
+	private void setDurations(float duration, ScenarioResult other, float otherDuration) {
+		for (ScenarioResult scenario : scenarios) {
+			scenario.restoreTally(scenario.getSafeName(), !scenario.isPassed(), scenario.getSkipCount() > 0,
+			                      scenario == other ? otherDuration : duration);
+		}
+	}
+
+
+	private static void assertFlips(List<FlakyScenario> flakiest, String id, int flips, int builds) {
+		assertThat(flakiest.size(), is(1));
+		assertThat(flakiest.get(0).getId(), is(id));
+		assertThat(flakiest.get(0).getFlips(), is(flips));
+		assertThat(flakiest.get(0).getBuilds(), is(builds));
+	}
+
+
+	private CucumberTestResult parse(String report) throws Exception {
+		CucumberTestResult parsed = new CucumberTestResult();
+		new CucumberJSONBinder(parsed, listener, false, tmp.newFolder()).parse(
+		      new File(ScenarioHistoryTest.class.getResource("ScenarioResultTest/" + report).toURI()));
+		parsed.tally();
+		return parsed;
+	}
+}